@@ -0,0 +1,211 @@
+package org.herbionyx.chaincode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.hyperledger.fabric.protos.common.Common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Common.Header;
+import org.hyperledger.fabric.protos.common.Common.HeaderType;
+import org.hyperledger.fabric.protos.common.Common.SignatureHeader;
+import org.hyperledger.fabric.protos.msp.Identities.SerializedIdentity;
+import org.hyperledger.fabric.protos.peer.Chaincode.ChaincodeInput;
+import org.hyperledger.fabric.protos.peer.ChaincodeGrpc;
+import org.hyperledger.fabric.protos.peer.ChaincodeShim.ChaincodeMessage;
+import org.hyperledger.fabric.protos.peer.ProposalPackage.ChaincodeProposalPayload;
+import org.hyperledger.fabric.protos.peer.ProposalPackage.Proposal;
+import org.hyperledger.fabric.protos.peer.ProposalPackage.SignedProposal;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePackage.Response;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * HERBIONYX - Stand-in peer for the class-data-sharing training run
+ *
+ * Connects to the chaincode server the way a peer does for chaincode-as-a-
+ * service (register, ready, then transaction messages) and drives a submit
+ * and an evaluate transaction through the real invoke path, so the recorded
+ * class list covers the shim's invocation stubs, contract routing, Genson,
+ * the JSON return serializer and the contract itself, not just server
+ * startup. Every ledger read is answered with empty state and every write is
+ * acknowledged. The zone transactions are used because they need no prior
+ * state and return plain strings.
+ *
+ * The creator certificate (cds-training.pem) is a throwaway self-signed
+ * certificate with no private key; the shim only parses it.
+ */
+final class CdsTrainingPeer {
+
+    private static final Logger LOGGER = Logger.getLogger(CdsTrainingPeer.class.getName());
+
+    private static final String CHANNEL = "cds-training";
+    private static final String CREATOR_MSP = "NMPBOrgMSP";
+    private static final String CREATOR_CERT = "cds-training.pem";
+
+    private final String address;
+    private final BlockingQueue<ChaincodeMessage> fromChaincode = new LinkedBlockingQueue<>();
+    private StreamObserver<ChaincodeMessage> toChaincode;
+    private volatile Throwable streamError;
+
+    CdsTrainingPeer(final String address) {
+        this.address = address;
+    }
+
+    /**
+     * Register with the chaincode and run the training transactions
+     */
+    void run(final long timeoutMillis) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ByteString creator = creator();
+
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(address).usePlaintext().build();
+        try {
+            toChaincode = ChaincodeGrpc.newStub(channel).withWaitForReady().connect(new StreamObserver<>() {
+                @Override
+                public void onNext(final ChaincodeMessage message) {
+                    fromChaincode.add(message);
+                }
+
+                @Override
+                public void onError(final Throwable t) {
+                    streamError = t;
+                }
+
+                @Override
+                public void onCompleted() {
+                    streamError = new IllegalStateException("Chaincode closed the stream");
+                }
+            });
+
+            expect(ChaincodeMessage.Type.REGISTER, deadline);
+            send(ChaincodeMessage.newBuilder().setType(ChaincodeMessage.Type.REGISTERED).build());
+            send(ChaincodeMessage.newBuilder().setType(ChaincodeMessage.Type.READY).build());
+
+            invoke(creator, deadline, "HerbTraceability:updateApprovedZones",
+                "{\"action\":\"refresh\"}");
+            invoke(creator, deadline, "HerbTraceability:getApprovedZones");
+
+            toChaincode.onCompleted();
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    private void invoke(final ByteString creator, final long deadline, final String... args) throws Exception {
+        String txId = String.format("%064x", System.nanoTime());
+        send(transaction(creator, txId, args));
+
+        for (;;) {
+            ChaincodeMessage message = next(deadline);
+            switch (message.getType()) {
+                case COMPLETED:
+                    int status = Response.parseFrom(message.getPayload()).getStatus();
+                    if (status != 200) {
+                        throw new IllegalStateException("CDS training transaction " + args[0]
+                            + " returned status " + status);
+                    }
+                    LOGGER.info(() -> "CDS training transaction " + args[0] + " completed");
+                    return;
+                case ERROR:
+                    throw new IllegalStateException("CDS training transaction " + args[0] + " failed: "
+                        + message.getPayload().toStringUtf8());
+                default:
+                    // Empty state for reads, acknowledgement for writes
+                    send(ChaincodeMessage.newBuilder()
+                        .setType(ChaincodeMessage.Type.RESPONSE)
+                        .setTxid(message.getTxid())
+                        .setChannelId(message.getChannelId())
+                        .build());
+            }
+        }
+    }
+
+    private static ChaincodeMessage transaction(final ByteString creator, final String txId, final String... args) {
+        ChaincodeInput.Builder input = ChaincodeInput.newBuilder();
+        for (String arg : args) {
+            input.addArgs(ByteString.copyFromUtf8(arg));
+        }
+
+        Instant now = Instant.now();
+        ChannelHeader channelHeader = ChannelHeader.newBuilder()
+            .setType(HeaderType.ENDORSER_TRANSACTION_VALUE)
+            .setChannelId(CHANNEL)
+            .setTxId(txId)
+            .setTimestamp(Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()))
+            .build();
+        SignatureHeader signatureHeader = SignatureHeader.newBuilder()
+            .setCreator(creator)
+            .setNonce(ByteString.copyFromUtf8(txId))
+            .build();
+        Proposal proposal = Proposal.newBuilder()
+            .setHeader(Header.newBuilder()
+                .setChannelHeader(channelHeader.toByteString())
+                .setSignatureHeader(signatureHeader.toByteString())
+                .build()
+                .toByteString())
+            .setPayload(ChaincodeProposalPayload.newBuilder().setInput(input.build().toByteString()).build()
+                .toByteString())
+            .build();
+
+        return ChaincodeMessage.newBuilder()
+            .setType(ChaincodeMessage.Type.TRANSACTION)
+            .setTxid(txId)
+            .setChannelId(CHANNEL)
+            .setPayload(input.build().toByteString())
+            .setProposal(SignedProposal.newBuilder().setProposalBytes(proposal.toByteString()))
+            .build();
+    }
+
+    private static ByteString creator() throws IOException {
+        try (InputStream in = CdsTrainingPeer.class.getClassLoader().getResourceAsStream(CREATOR_CERT)) {
+            if (in == null) {
+                throw new IOException(CREATOR_CERT + " not found on the classpath");
+            }
+            return SerializedIdentity.newBuilder()
+                .setMspid(CREATOR_MSP)
+                .setIdBytes(ByteString.copyFrom(new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                    StandardCharsets.UTF_8))
+                .build()
+                .toByteString();
+        }
+    }
+
+    private void send(final ChaincodeMessage message) {
+        toChaincode.onNext(message);
+    }
+
+    private void expect(final ChaincodeMessage.Type type, final long deadline) throws Exception {
+        ChaincodeMessage message = next(deadline);
+        if (message.getType() != type) {
+            throw new IllegalStateException("Expected " + type + " from chaincode, got " + message.getType());
+        }
+    }
+
+    private ChaincodeMessage next(final long deadline) throws InterruptedException, TimeoutException {
+        for (;;) {
+            if (streamError != null) {
+                throw new IllegalStateException("Chaincode stream failed", streamError);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException("CDS training transactions did not complete in time");
+            }
+            ChaincodeMessage message = fromChaincode.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)),
+                TimeUnit.NANOSECONDS);
+            if (message != null) {
+                return message;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.herbionyx.chaincode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.hyperledger.fabric.contract.ContractRouter;
+
+/**
+ * HERBIONYX - Chaincode launcher
+ *
+ * Thin wrapper around ContractRouter so the same jar can be started by the
+ * peer (classic launch) or as a chaincode-as-a-service container. The shim
+ * switches to server mode on its own when CHAINCODE_SERVER_ADDRESS and
+ * CORE_CHAINCODE_ID_NAME are set.
+ *
+ * When the system property herbionyx.cds.trainingMillis is set, a stand-in
+ * peer (CdsTrainingPeer) connects to the chaincode server, runs a submit and
+ * an evaluate transaction through it and the process exits, so the
+ * class-data-sharing class list covers startup and the first transactions
+ * (see the cdsClassList Gradle task). The property is the time limit for the
+ * whole run.
+ */
+public final class ChaincodeLauncher {
+
+    private static final Logger LOGGER = Logger.getLogger(ChaincodeLauncher.class.getName());
+
+    static final String CDS_TRAINING_PROPERTY = "herbionyx.cds.trainingMillis";
+
+    private ChaincodeLauncher() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        LOGGER.info(() -> String.format("Launching HerbTraceability in %s mode, JVM startup took %d ms",
+            isServerMode() ? "chaincode-as-a-service" : "peer-launched", jvmUptimeMillis()));
+
+        logTransactionExecutor();
+
+        String trainingMillis = System.getProperty(CDS_TRAINING_PROPERTY);
+        if (trainingMillis != null) {
+            startTrainingRun(Long.parseLong(trainingMillis));
+        }
+
+        ContractRouter.main(args);
+    }
+
+    /**
+     * Milliseconds since the JVM was started
+     */
+    static long jvmUptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Log the transaction executor sizing the shim will pick up from config.props
+     */
+    private static void logTransactionExecutor() {
+        Properties props = new Properties();
+        try (InputStream in = ChaincodeLauncher.class.getClassLoader().getResourceAsStream("config.props")) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Unable to read config.props: " + e.getMessage());
+        }
+        LOGGER.info(() -> String.format("Transaction executor: core=%s max=%s queue=%s",
+            props.getProperty("TP_CORE_POOL_SIZE", "5"),
+            props.getProperty("TP_MAX_POOL_SIZE", "5"),
+            props.getProperty("TP_QUEUE_SIZE", "5000")));
+    }
+
+    private static boolean isServerMode() {
+        String address = System.getenv("CHAINCODE_SERVER_ADDRESS");
+        return address != null && !address.isEmpty();
+    }
+
+    private static void startTrainingRun(final long timeoutMillis) {
+        if (!isServerMode()) {
+            throw new IllegalStateException("CDS training needs CHAINCODE_SERVER_ADDRESS to serve transactions");
+        }
+
+        Thread trainingThread = new Thread(() -> {
+            int status = 0;
+            try {
+                new CdsTrainingPeer(System.getenv("CHAINCODE_SERVER_ADDRESS")).run(timeoutMillis);
+                LOGGER.info(() -> "CDS training run finished after " + jvmUptimeMillis() + " ms");
+            } catch (Exception e) {
+                LOGGER.severe("CDS training run failed: " + e);
+                status = 1;
+            }
+            System.exit(status);
+        }, "cds-training");
+        trainingThread.setDaemon(true);
+        trainingThread.start();
+    }
+}
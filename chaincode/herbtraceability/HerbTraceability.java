@@ -1,8 +1,20 @@
 package org.herbionyx.chaincode;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Logger;
 
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
@@ -14,8 +26,10 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 
 import com.owlike.genson.Genson;
 
@@ -42,6 +56,32 @@ import com.owlike.genson.Genson;
 @Default
 public final class HerbTraceability implements ContractInterface {
 
+    private static final Logger LOGGER = Logger.getLogger(HerbTraceability.class.getName());
+
+    // Set once the first transaction reaches the contract after JVM start
+    private static final AtomicBoolean FIRST_TRANSACTION_SEEN = new AtomicBoolean(false);
+
+    // Composite key index: RECALL_BY_BATCH~batchId~recallId -> 0x00
+    static final String RECALL_BY_BATCH_INDEX = "RECALL_BY_BATCH";
+
+    private static final byte[] INDEX_VALUE = new byte[] {0x00};
+
+    // Composite key index: PROVENANCE_ROOT~batchId -> provenance digest (hex)
+    static final String PROVENANCE_ROOT_INDEX = "PROVENANCE_ROOT";
+
+    // Composite key index: WORKQUEUE~queue~recordId -> WorkItem. Record IDs embed
+    // the transaction time as fixed-width millis, so key order is time order.
+    static final String WORK_QUEUE_INDEX = "WORKQUEUE";
+
+    static final String QUEUE_AWAITING_TEST = "AWAITING_TEST";
+    static final String QUEUE_AWAITING_PROCESSING = "AWAITING_PROCESSING";
+    static final String QUEUE_AWAITING_BATCH = "AWAITING_BATCH";
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // Upper bound on IDs per verifyBatches call; keeps the response size bounded
+    static final int BULK_VERIFY_MAX_IDS = 500;
+
     private final Genson genson = new Genson();
 
     // Error types
@@ -55,7 +95,20 @@ public final class HerbTraceability implements ContractInterface {
         QUALITY_GATE_FAILED,
         INSUFFICIENT_PERMISSIONS,
         SEASONAL_RESTRICTION_VIOLATION,
-        YIELD_LIMIT_EXCEEDED
+        YIELD_LIMIT_EXCEEDED,
+        BULK_LIMIT_EXCEEDED,
+        INVALID_STATUS_TRANSITION
+    }
+
+    /**
+     * Report startup-to-first-transaction time once per JVM
+     */
+    @Override
+    public void beforeTransaction(final Context ctx) {
+        if (FIRST_TRANSACTION_SEEN.compareAndSet(false, true)) {
+            LOGGER.info(() -> String.format("First transaction %s served %d ms after JVM start",
+                ctx.getStub().getTxId(), ChaincodeLauncher.jvmUptimeMillis()));
+        }
     }
 
     /**
@@ -105,7 +158,7 @@ public final class HerbTraceability implements ContractInterface {
         event.imageHash = data.imageHash;
         event.metadataHash = data.metadataHash;
         event.status = "COLLECTED";
-        event.qrCode = generateQRCode(eventId, "collection");
+        event.qrCode = generateQRCode(stub, eventId, "collection");
 
         String eventKey = "COLLECTION_" + eventId;
         stub.putStringState(eventKey, genson.serialize(event));
@@ -113,6 +166,9 @@ public final class HerbTraceability implements ContractInterface {
         // Update zone yield tracking
         updateZoneYield(stub, data.latitude, data.longitude, data.weight);
         
+        // Queue for lab testing
+        enqueueWork(stub, QUEUE_AWAITING_TEST, eventId, null, data.species, data.timestamp);
+        
         // Emit collection event
         stub.setEvent("CollectionRecorded", genson.serialize(event).getBytes());
         
@@ -143,6 +199,13 @@ public final class HerbTraceability implements ContractInterface {
                 HerbTraceabilityErrors.COLLECTION_NOT_FOUND.toString());
         }
 
+        // Only collections still awaiting testing can be attested
+        CollectionEvent collection = genson.deserialize(collectionStateJSON, CollectionEvent.class);
+        if (!"COLLECTED".equals(collection.status)) {
+            throw new ChaincodeException("Collection event is not awaiting testing: " + collection.status, 
+                HerbTraceabilityErrors.INVALID_STATUS_TRANSITION.toString());
+        }
+
         // Validate quality thresholds (NMPB/GACP standards)
         if (!validateQualityGates(data.testResults)) {
             throw new ChaincodeException("Batch failed quality gate validation", 
@@ -164,16 +227,21 @@ public final class HerbTraceability implements ContractInterface {
         attestation.testDate = data.timestamp;
         attestation.imageHash = data.imageHash;
         attestation.metadataHash = data.metadataHash;
-        attestation.qrCode = generateQRCode(testId, "quality");
+        attestation.qrCode = generateQRCode(stub, testId, "quality");
 
         String testKey = "QUALITY_" + testId;
         stub.putStringState(testKey, genson.serialize(attestation));
         
         // Update collection event status
-        CollectionEvent collection = genson.deserialize(collectionStateJSON, CollectionEvent.class);
         collection.status = data.passed ? "QUALITY_PASSED" : "QUALITY_FAILED";
         stub.putStringState(collectionKey, genson.serialize(collection));
         
+        // Move from the lab queue to the processor queue
+        dequeueWork(stub, QUEUE_AWAITING_TEST, data.eventId);
+        if (attestation.passed) {
+            enqueueWork(stub, QUEUE_AWAITING_PROCESSING, testId, data.eventId, collection.species, data.timestamp);
+        }
+        
         // Emit quality event
         stub.setEvent("QualityAttested", genson.serialize(attestation).getBytes());
         
@@ -209,6 +277,9 @@ public final class HerbTraceability implements ContractInterface {
             throw new ChaincodeException("Cannot process batch that failed quality tests", 
                 HerbTraceabilityErrors.QUALITY_GATE_FAILED.toString());
         }
+        
+        // Only tests still in the processor queue can be taken into processing
+        requireQueued(stub, QUEUE_AWAITING_PROCESSING, data.testId, "Quality test is not awaiting processing");
 
         String processId = generateProcessId(stub);
         
@@ -226,11 +297,19 @@ public final class HerbTraceability implements ContractInterface {
         processing.imageHash = data.imageHash;
         processing.metadataHash = data.metadataHash;
         processing.status = "PROCESSED";
-        processing.qrCode = generateQRCode(processId, "processing");
+        processing.qrCode = generateQRCode(stub, processId, "processing");
 
         String processKey = "PROCESSING_" + processId;
         stub.putStringState(processKey, genson.serialize(processing));
         
+        // Record which lot consumed the test
+        quality.processId = processId;
+        stub.putStringState(qualityKey, genson.serialize(quality));
+        
+        // Move from the processor queue to the manufacturer queue
+        dequeueWork(stub, QUEUE_AWAITING_PROCESSING, data.testId);
+        enqueueWork(stub, QUEUE_AWAITING_BATCH, processId, data.testId, data.processType, data.timestamp);
+        
         // Emit processing event
         stub.setEvent("CustodyTransferred", genson.serialize(processing).getBytes());
         
@@ -260,6 +339,9 @@ public final class HerbTraceability implements ContractInterface {
             throw new ChaincodeException("Processing record not found", 
                 HerbTraceabilityErrors.PROCESSING_NOT_FOUND.toString());
         }
+        
+        // Only lots still in the manufacturer queue can be batched
+        requireQueued(stub, QUEUE_AWAITING_BATCH, data.processId, "Processing record is not awaiting batching");
 
         String batchId = generateBatchId(stub);
         
@@ -280,11 +362,22 @@ public final class HerbTraceability implements ContractInterface {
         batch.metadataHash = data.metadataHash;
         batch.provenanceChain = provenance;
         batch.status = "MANUFACTURED";
-        batch.qrCode = generateQRCode(batchId, "final-product");
+        batch.provenanceDigest = computeProvenanceDigest(batch);
+        batch.qrCode = generateQRCode(stub, batchId, "final-product", batch.provenanceDigest);
 
         String batchKey = "BATCH_" + batchId;
         stub.putStringState(batchKey, genson.serialize(batch));
         
+        // Publish the digest as a root for offline verifiers to sync
+        CompositeKey rootKey = stub.createCompositeKey(PROVENANCE_ROOT_INDEX, batchId);
+        stub.putStringState(rootKey.toString(), batch.provenanceDigest);
+        
+        // Lot is now batched
+        ProcessingRecord processing = genson.deserialize(processStateJSON, ProcessingRecord.class);
+        processing.status = "BATCHED";
+        stub.putStringState(processKey, genson.serialize(processing));
+        dequeueWork(stub, QUEUE_AWAITING_BATCH, data.processId);
+        
         // Emit batch creation event
         stub.setEvent("BatchCreated", genson.serialize(batch).getBytes());
         
@@ -441,28 +534,217 @@ public final class HerbTraceability implements ContractInterface {
     }
 
     /**
-     * Generate QR code data
+     * Look up active recalls for a batch through the recall-by-batch index
+     */
+    private List<RecallNotice> getActiveRecalls(ChaincodeStub stub, String batchId) {
+        List<RecallNotice> recalls = new ArrayList<>();
+        
+        try (QueryResultsIterator<KeyValue> results =
+                stub.getStateByPartialCompositeKey(RECALL_BY_BATCH_INDEX, batchId)) {
+            for (KeyValue result : results) {
+                List<String> attributes = stub.splitCompositeKey(result.getKey()).getAttributes();
+                String recallJSON = stub.getStringState("RECALL_" + attributes.get(1));
+                if (recallJSON.isEmpty()) {
+                    continue;
+                }
+                
+                RecallNotice recall = genson.deserialize(recallJSON, RecallNotice.class);
+                if ("ACTIVE".equals(recall.status)) {
+                    recalls.add(recall);
+                }
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to read recall index: " + e.getMessage());
+        }
+        
+        return recalls;
+    }
+
+    /**
+     * Compare the provenance chain stored with the batch against the source records
+     */
+    private String checkHashIntegrity(ChaincodeStub stub, ProductBatch batch) {
+        if (batch.provenanceChain == null || batch.provenanceChain.steps == null) {
+            return "UNVERIFIED";
+        }
+        
+        ProvenanceChain current;
+        try {
+            current = buildProvenanceChain(stub, batch.processId);
+        } catch (RuntimeException e) {
+            // A source record is missing or unreadable
+            return "BROKEN";
+        }
+        
+        if (current.steps.size() != batch.provenanceChain.steps.size()) {
+            return "MISMATCH";
+        }
+        if (batch.provenanceDigest != null && !batch.provenanceDigest.equals(computeProvenanceDigest(batch))) {
+            return "MISMATCH";
+        }
+        for (int i = 0; i < current.steps.size(); i++) {
+            ProvenanceStep stored = batch.provenanceChain.steps.get(i);
+            ProvenanceStep source = current.steps.get(i);
+            if (!Objects.equals(stored.imageHash, source.imageHash)
+                    || !Objects.equals(stored.metadataHash, source.metadataHash)) {
+                return "MISMATCH";
+            }
+        }
+        
+        return "VERIFIED";
+    }
+
+    /**
+     * Add a record to a status work queue
+     */
+    private void enqueueWork(ChaincodeStub stub, String queue, String recordId, String parentId,
+            String summary, String timestamp) {
+        WorkItem item = new WorkItem();
+        item.id = recordId;
+        item.parentId = parentId;
+        item.summary = summary;
+        item.timestamp = timestamp;
+        
+        CompositeKey queueKey = stub.createCompositeKey(WORK_QUEUE_INDEX, queue, recordId);
+        stub.putStringState(queueKey.toString(), genson.serialize(item));
+    }
+
+    /**
+     * Remove a record from a status work queue
+     */
+    private void dequeueWork(ChaincodeStub stub, String queue, String recordId) {
+        stub.delState(stub.createCompositeKey(WORK_QUEUE_INDEX, queue, recordId).toString());
+    }
+
+    /**
+     * Reject the transition unless the record is waiting in the given queue
+     */
+    private void requireQueued(ChaincodeStub stub, String queue, String recordId, String message) {
+        String queueKey = stub.createCompositeKey(WORK_QUEUE_INDEX, queue, recordId).toString();
+        if (stub.getStringState(queueKey).isEmpty()) {
+            throw new ChaincodeException(message + ": " + recordId, 
+                HerbTraceabilityErrors.INVALID_STATUS_TRANSITION.toString());
+        }
+    }
+
+    /**
+     * Read one page of a status work queue, oldest first
      */
-    private String generateQRCode(String id, String type) {
+    private WorkQueuePage listWorkQueue(ChaincodeStub stub, String queue, int pageSize, String bookmark) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        
+        WorkQueuePage page = new WorkQueuePage();
+        page.queue = queue;
+        page.items = new ArrayList<>();
+        
+        try (QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                new CompositeKey(WORK_QUEUE_INDEX, queue), size, bookmark)) {
+            for (KeyValue result : results) {
+                page.items.add(genson.deserialize(result.getStringValue(), WorkItem.class));
+            }
+            page.bookmark = results.getMetadata().getBookmark();
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to read work queue " + queue + ": " + e.getMessage());
+        }
+        
+        page.count = page.items.size();
+        return page;
+    }
+
+    /**
+     * Compute the provenance digest: a SHA-256 hash chain over the batch header
+     * followed by each provenance step. Every field is length-prefixed and
+     * coordinates use six fixed decimals, so offline verifiers can recompute it
+     * byte for byte (see src/utils/provenanceVerifier.js).
+     */
+    static String computeProvenanceDigest(ProductBatch batch) {
+        StringBuilder header = new StringBuilder();
+        appendField(header, batch.batchId);
+        appendField(header, batch.productName);
+        appendField(header, batch.manufacturerMSP);
+        appendField(header, batch.manufacturingDate);
+        appendField(header, batch.expiryDate);
+        String digest = sha256Hex(header.toString());
+        
+        if (batch.provenanceChain != null && batch.provenanceChain.steps != null) {
+            for (ProvenanceStep step : batch.provenanceChain.steps) {
+                StringBuilder link = new StringBuilder(digest);
+                appendField(link, step.stage);
+                appendField(link, step.timestamp);
+                appendField(link, step.organization);
+                appendField(link, formatCoordinate(step.latitude));
+                appendField(link, formatCoordinate(step.longitude));
+                appendField(link, step.imageHash);
+                appendField(link, step.metadataHash);
+                if (step.details != null) {
+                    for (Map.Entry<String, String> entry : new TreeMap<>(step.details).entrySet()) {
+                        appendField(link, entry.getKey());
+                        appendField(link, entry.getValue());
+                    }
+                }
+                digest = sha256Hex(link.toString());
+            }
+        }
+        
+        return digest;
+    }
+
+    // Rounds the exact binary value half away from zero like Number.prototype.toFixed(6),
+    // except that values rounding to zero never carry a sign (the JS side strips "-0.000000")
+    private static String formatCoordinate(double value) {
+        return new BigDecimal(value).setScale(6, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        String field = value == null ? "" : value;
+        sb.append(field.length()).append(':').append(field).append(';');
+    }
+
+    private static String sha256Hex(String input) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Generate QR code data. Uses the transaction timestamp so every endorsing
+     * peer produces the same payload.
+     */
+    private String generateQRCode(ChaincodeStub stub, String id, String type) {
         return String.format("{\"id\":\"%s\",\"type\":\"%s\",\"timestamp\":\"%s\",\"network\":\"herbionyx\"}", 
-            id, type, java.time.Instant.now().toString());
+            id, type, stub.getTxTimestamp().toString());
+    }
+
+    /**
+     * Generate QR code data carrying the provenance digest for offline verification
+     */
+    private String generateQRCode(ChaincodeStub stub, String id, String type, String digest) {
+        return String.format("{\"id\":\"%s\",\"type\":\"%s\",\"timestamp\":\"%s\",\"network\":\"herbionyx\",\"digest\":\"%s\"}", 
+            id, type, stub.getTxTimestamp().toString(), digest);
     }
 
-    // ID Generation Methods
+    // ID Generation Methods (transaction timestamp keeps IDs identical across endorsers)
     private String generateEventId(ChaincodeStub stub) {
-        return "EVT_" + System.currentTimeMillis() + "_" + stub.getTxId().substring(0, 8);
+        return "EVT_" + stub.getTxTimestamp().toEpochMilli() + "_" + stub.getTxId().substring(0, 8);
     }
 
     private String generateTestId(ChaincodeStub stub) {
-        return "TEST_" + System.currentTimeMillis() + "_" + stub.getTxId().substring(0, 8);
+        return "TEST_" + stub.getTxTimestamp().toEpochMilli() + "_" + stub.getTxId().substring(0, 8);
     }
 
     private String generateProcessId(ChaincodeStub stub) {
-        return "PROC_" + System.currentTimeMillis() + "_" + stub.getTxId().substring(0, 8);
+        return "PROC_" + stub.getTxTimestamp().toEpochMilli() + "_" + stub.getTxId().substring(0, 8);
     }
 
     private String generateBatchId(ChaincodeStub stub) {
-        return "BATCH_" + System.currentTimeMillis() + "_" + stub.getTxId().substring(0, 8);
+        return "BATCH_" + stub.getTxTimestamp().toEpochMilli() + "_" + stub.getTxId().substring(0, 8);
     }
 
     // Query Functions
@@ -535,6 +817,141 @@ public final class HerbTraceability implements ContractInterface {
         return genson.deserialize(batchJSON, ProductBatch.class);
     }
 
+    /**
+     * Verify a scanned product in a single call: batch status, active recalls
+     * and hash integrity of the stored provenance chain
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public ProductVerification verifyProduct(final Context ctx, final String batchId) {
+        ChaincodeStub stub = ctx.getStub();
+        ProductVerification verification = new ProductVerification();
+        verification.batchId = batchId;
+
+        String batchJSON = stub.getStringState("BATCH_" + batchId);
+        if (batchJSON.isEmpty()) {
+            // Unknown batches are a verdict for the consumer, not an error
+            verification.exists = false;
+            verification.status = "NOT_FOUND";
+            verification.activeRecalls = new ArrayList<>();
+            verification.hashIntegrity = "UNVERIFIED";
+            return verification;
+        }
+
+        ProductBatch batch = genson.deserialize(batchJSON, ProductBatch.class);
+        verification.exists = true;
+        verification.status = batch.status;
+        verification.productName = batch.productName;
+        verification.manufacturerMSP = batch.manufacturerMSP;
+        verification.manufacturingDate = batch.manufacturingDate;
+        verification.expiryDate = batch.expiryDate;
+        verification.activeRecalls = getActiveRecalls(stub, batchId);
+        verification.recalled = !verification.activeRecalls.isEmpty();
+        verification.hashIntegrity = checkHashIntegrity(stub, batch);
+
+        return verification;
+    }
+
+    /**
+     * Verify a pallet of scanned batches in one call. Accepts a JSON array of
+     * batch IDs (at most BULK_VERIFY_MAX_IDS) and returns a compact verdict
+     * per ID in input order; callers split larger scans into chunks. Recalls
+     * come from the recall-by-batch index, as in verifyProduct.
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public BulkVerification verifyBatches(final Context ctx, final String batchIdsJSON) {
+        ChaincodeStub stub = ctx.getStub();
+        String[] batchIds = genson.deserialize(batchIdsJSON, String[].class);
+        if (batchIds == null) {
+            batchIds = new String[0];
+        }
+        
+        if (batchIds.length > BULK_VERIFY_MAX_IDS) {
+            throw new ChaincodeException("At most " + BULK_VERIFY_MAX_IDS + " batch IDs can be verified per call",
+                HerbTraceabilityErrors.BULK_LIMIT_EXCEEDED.toString());
+        }
+
+        BulkVerification bulk = new BulkVerification();
+        bulk.verdicts = new ArrayList<>(batchIds.length);
+        
+        for (String batchId : batchIds) {
+            BatchVerdict verdict = new BatchVerdict();
+            verdict.batchId = batchId;
+            
+            String batchJSON = batchId == null || batchId.isEmpty() ? "" : stub.getStringState("BATCH_" + batchId);
+            if (batchJSON.isEmpty()) {
+                verdict.status = "NOT_FOUND";
+                bulk.notFound++;
+            } else {
+                ProductBatch batch = genson.deserialize(batchJSON, ProductBatch.class);
+                verdict.exists = true;
+                verdict.status = batch.status;
+                verdict.recalled = !getActiveRecalls(stub, batchId).isEmpty();
+                verdict.manufacturerMSP = batch.manufacturerMSP;
+                if (verdict.recalled) {
+                    bulk.recalled++;
+                }
+            }
+            
+            bulk.verdicts.add(verdict);
+        }
+        
+        bulk.total = bulk.verdicts.size();
+        return bulk;
+    }
+
+    /**
+     * Page through the provenance roots of all live (non-recalled) batches so
+     * offline verifiers can periodically sync their cache
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public ProvenanceRootPage getProvenanceRoots(final Context ctx, final int pageSize, final String bookmark) {
+        ChaincodeStub stub = ctx.getStub();
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        
+        ProvenanceRootPage page = new ProvenanceRootPage();
+        page.roots = new ArrayList<>();
+        
+        try (QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                new CompositeKey(PROVENANCE_ROOT_INDEX), size, bookmark)) {
+            for (KeyValue result : results) {
+                ProvenanceRoot root = new ProvenanceRoot();
+                root.batchId = stub.splitCompositeKey(result.getKey()).getAttributes().get(0);
+                root.digest = result.getStringValue();
+                page.roots.add(root);
+            }
+            page.bookmark = results.getMetadata().getBookmark();
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to read provenance roots: " + e.getMessage());
+        }
+        
+        page.count = page.roots.size();
+        return page;
+    }
+
+    /**
+     * Collections awaiting lab testing, oldest first
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public WorkQueuePage getCollectionsAwaitingTest(final Context ctx, final int pageSize, final String bookmark) {
+        return listWorkQueue(ctx.getStub(), QUEUE_AWAITING_TEST, pageSize, bookmark);
+    }
+
+    /**
+     * Passed quality tests not yet taken into processing, oldest first
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public WorkQueuePage getTestsAwaitingProcessing(final Context ctx, final int pageSize, final String bookmark) {
+        return listWorkQueue(ctx.getStub(), QUEUE_AWAITING_PROCESSING, pageSize, bookmark);
+    }
+
+    /**
+     * Processed lots not yet turned into product batches, oldest first
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public WorkQueuePage getLotsAwaitingBatch(final Context ctx, final int pageSize, final String bookmark) {
+        return listWorkQueue(ctx.getStub(), QUEUE_AWAITING_BATCH, pageSize, bookmark);
+    }
+
     /**
      * Get all approved zones (for admin)
      */
@@ -596,7 +1013,7 @@ public final class HerbTraceability implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         RecallData data = genson.deserialize(recallData, RecallData.class);
         
-        String recallId = "RECALL_" + System.currentTimeMillis();
+        String recallId = "RECALL_" + stub.getTxTimestamp().toEpochMilli() + "_" + stub.getTxId().substring(0, 8);
         
         RecallNotice recall = new RecallNotice();
         recall.recallId = recallId;
@@ -609,12 +1026,217 @@ public final class HerbTraceability implements ContractInterface {
         String recallKey = "RECALL_" + recallId;
         stub.putStringState(recallKey, genson.serialize(recall));
         
+        applyRecall(stub, recall);
+        
         // Emit recall event
         stub.setEvent("RecallInitiated", genson.serialize(recall).getBytes());
         
         return "Recall initiated successfully: " + recallId;
     }
 
+    /**
+     * One-time migration for recalls created before the recall-by-batch index
+     * (admin only). Scans every RECALL_ record once and applies each active
+     * recall the way initiateRecall does today: index entry, RECALLED batch
+     * status and withdrawn provenance root. Safe to re-run.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String backfillRecallIndex(final Context ctx) {
+        String clientMSPID = ctx.getClientIdentity().getMSPID();
+        
+        // Verify NMPB admin permissions
+        if (!clientMSPID.equals("NMPBOrgMSP")) {
+            throw new ChaincodeException("Only NMPB admins can backfill the recall index", 
+                HerbTraceabilityErrors.UNAUTHORIZED_ACCESS.toString());
+        }
+
+        ChaincodeStub stub = ctx.getStub();
+        List<RecallNotice> recalls = new ArrayList<>();
+        
+        // "RECALL`" is the first key after every "RECALL_" key; composite keys sort before both
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("RECALL_", "RECALL`")) {
+            for (KeyValue result : results) {
+                RecallNotice recall = genson.deserialize(result.getStringValue(), RecallNotice.class);
+                if ("ACTIVE".equals(recall.status) && recall.recallId != null && recall.batchId != null) {
+                    recalls.add(recall);
+                }
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to scan recalls: " + e.getMessage());
+        }
+        
+        for (RecallNotice recall : recalls) {
+            applyRecall(stub, recall);
+        }
+        
+        return "Recall index backfilled: " + recalls.size() + " active recalls";
+    }
+
+    /**
+     * Index a recall by batch, mark the batch RECALLED and withdraw its provenance root
+     */
+    private void applyRecall(ChaincodeStub stub, RecallNotice recall) {
+        // Index the recall by batch so verification needs no recall scan
+        CompositeKey indexKey = stub.createCompositeKey(RECALL_BY_BATCH_INDEX, recall.batchId, recall.recallId);
+        stub.putState(indexKey.toString(), INDEX_VALUE);
+        
+        // Mark the batch itself so getProvenance reflects the recall
+        String batchKey = "BATCH_" + recall.batchId;
+        String batchJSON = stub.getStringState(batchKey);
+        if (!batchJSON.isEmpty()) {
+            ProductBatch batch = genson.deserialize(batchJSON, ProductBatch.class);
+            if (!"RECALLED".equals(batch.status)) {
+                batch.status = "RECALLED";
+                stub.putStringState(batchKey, genson.serialize(batch));
+            }
+            
+            // Withdraw the root so offline verifiers reject the batch after their next sync
+            stub.delState(stub.createCompositeKey(PROVENANCE_ROOT_INDEX, recall.batchId).toString());
+        }
+    }
+
+    /**
+     * Queue records created before the work-queue indexes existed (admin only).
+     * transferCustody and batchCreation only accept queued records, so pending
+     * legacy tests and lots must be backfilled before they can move on. Each
+     * record is checked against its own status, and tests or lots that were
+     * already consumed are found by scanning the processing or batch records
+     * once per call, since legacy records predate the tracking fields.
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String backfillWorkQueue(final Context ctx, final String queue, final String recordIdsJSON) {
+        String clientMSPID = ctx.getClientIdentity().getMSPID();
+        
+        // Verify NMPB admin permissions
+        if (!clientMSPID.equals("NMPBOrgMSP")) {
+            throw new ChaincodeException("Only NMPB admins can backfill work queues", 
+                HerbTraceabilityErrors.UNAUTHORIZED_ACCESS.toString());
+        }
+        
+        if (!QUEUE_AWAITING_TEST.equals(queue) && !QUEUE_AWAITING_PROCESSING.equals(queue)
+                && !QUEUE_AWAITING_BATCH.equals(queue)) {
+            throw new ChaincodeException("Unknown work queue: " + queue);
+        }
+
+        String[] recordIds = parseRecordIds(recordIdsJSON);
+        ChaincodeStub stub = ctx.getStub();
+        
+        switch (queue) {
+            case QUEUE_AWAITING_TEST:
+                for (String eventId : recordIds) {
+                    backfillAwaitingTest(stub, eventId);
+                }
+                break;
+            case QUEUE_AWAITING_PROCESSING:
+                Set<String> processedTests = referencedIds(stub, "PROCESSING_",
+                    json -> genson.deserialize(json, ProcessingRecord.class).testId);
+                for (String testId : recordIds) {
+                    backfillAwaitingProcessing(stub, testId, processedTests);
+                }
+                break;
+            default:
+                Set<String> batchedLots = referencedIds(stub, "BATCH_",
+                    json -> genson.deserialize(json, ProductBatch.class).processId);
+                for (String processId : recordIds) {
+                    backfillAwaitingBatch(stub, processId, batchedLots);
+                }
+        }
+        
+        return "Work queue " + queue + " backfilled: " + recordIds.length + " records";
+    }
+
+    private String[] parseRecordIds(String recordIdsJSON) {
+        String[] recordIds;
+        try {
+            recordIds = genson.deserialize(recordIdsJSON, String[].class);
+        } catch (RuntimeException e) {
+            throw new ChaincodeException("Record IDs must be a JSON array of strings: " + e.getMessage());
+        }
+        
+        if (recordIds == null) {
+            throw new ChaincodeException("Record IDs must be a JSON array of strings");
+        }
+        for (String recordId : recordIds) {
+            if (recordId == null || recordId.isEmpty()) {
+                throw new ChaincodeException("Record IDs must not be null or empty");
+            }
+        }
+        return recordIds;
+    }
+
+    /**
+     * IDs referenced by every record under a key prefix, e.g. the test IDs of all processing records
+     */
+    private Set<String> referencedIds(ChaincodeStub stub, String prefix, Function<String, String> reference) {
+        Set<String> ids = new HashSet<>();
+        
+        // The range end swaps the trailing "_" for "`", the next character
+        String endKey = prefix.substring(0, prefix.length() - 1) + "`";
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(prefix, endKey)) {
+            for (KeyValue result : results) {
+                String id = reference.apply(result.getStringValue());
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to scan " + prefix + " records: " + e.getMessage());
+        }
+        
+        return ids;
+    }
+
+    private void backfillAwaitingTest(ChaincodeStub stub, String eventId) {
+        String collectionJSON = stub.getStringState("COLLECTION_" + eventId);
+        if (collectionJSON.isEmpty()) {
+            throw new ChaincodeException("Collection event not found: " + eventId, 
+                HerbTraceabilityErrors.COLLECTION_NOT_FOUND.toString());
+        }
+        
+        CollectionEvent collection = genson.deserialize(collectionJSON, CollectionEvent.class);
+        if (!"COLLECTED".equals(collection.status)) {
+            throw new ChaincodeException("Collection event is not awaiting testing: " + eventId, 
+                HerbTraceabilityErrors.INVALID_STATUS_TRANSITION.toString());
+        }
+        enqueueWork(stub, QUEUE_AWAITING_TEST, eventId, null, collection.species, collection.timestamp);
+    }
+
+    private void backfillAwaitingProcessing(ChaincodeStub stub, String testId, Set<String> processedTests) {
+        String qualityJSON = stub.getStringState("QUALITY_" + testId);
+        if (qualityJSON.isEmpty()) {
+            throw new ChaincodeException("Quality test not found: " + testId, 
+                HerbTraceabilityErrors.QUALITY_TEST_NOT_FOUND.toString());
+        }
+        
+        QualityAttestation quality = genson.deserialize(qualityJSON, QualityAttestation.class);
+        if (!quality.passed || quality.processId != null || processedTests.contains(testId)) {
+            throw new ChaincodeException("Quality test is not awaiting processing: " + testId, 
+                HerbTraceabilityErrors.INVALID_STATUS_TRANSITION.toString());
+        }
+        
+        String collectionJSON = stub.getStringState("COLLECTION_" + quality.eventId);
+        String species = collectionJSON.isEmpty() ? null
+            : genson.deserialize(collectionJSON, CollectionEvent.class).species;
+        enqueueWork(stub, QUEUE_AWAITING_PROCESSING, testId, quality.eventId, species, quality.testDate);
+    }
+
+    private void backfillAwaitingBatch(ChaincodeStub stub, String processId, Set<String> batchedLots) {
+        String processJSON = stub.getStringState("PROCESSING_" + processId);
+        if (processJSON.isEmpty()) {
+            throw new ChaincodeException("Processing record not found: " + processId, 
+                HerbTraceabilityErrors.PROCESSING_NOT_FOUND.toString());
+        }
+        
+        // Legacy lots stay PROCESSED after batching, so the batch scan is what catches them
+        ProcessingRecord processing = genson.deserialize(processJSON, ProcessingRecord.class);
+        if (!"PROCESSED".equals(processing.status) || batchedLots.contains(processId)) {
+            throw new ChaincodeException("Processing record is not awaiting batching: " + processId, 
+                HerbTraceabilityErrors.INVALID_STATUS_TRANSITION.toString());
+        }
+        enqueueWork(stub, QUEUE_AWAITING_BATCH, processId, processing.testId, processing.processType,
+            processing.processDate);
+    }
+
     // Data Model Classes
     
     static class CollectionEventData {
@@ -672,6 +1294,7 @@ public final class HerbTraceability implements ContractInterface {
         public String imageHash;
         public String metadataHash;
         public String qrCode;
+        public String processId;
     }
 
     static class CustodyTransferData {
@@ -726,6 +1349,7 @@ public final class HerbTraceability implements ContractInterface {
         public String imageHash;
         public String metadataHash;
         public ProvenanceChain provenanceChain;
+        public String provenanceDigest;
         public String status;
         public String qrCode;
     }
@@ -790,4 +1414,57 @@ public final class HerbTraceability implements ContractInterface {
         public String initiatedDate;
         public String status;
     }
+
+    static class ProductVerification {
+        public String batchId;
+        public boolean exists;
+        public String status;
+        public String productName;
+        public String manufacturerMSP;
+        public String manufacturingDate;
+        public String expiryDate;
+        public boolean recalled;
+        public List<RecallNotice> activeRecalls;
+        public String hashIntegrity;
+    }
+
+    static class BatchVerdict {
+        public String batchId;
+        public boolean exists;
+        public String status;
+        public boolean recalled;
+        public String manufacturerMSP;
+    }
+
+    static class BulkVerification {
+        public int total;
+        public int notFound;
+        public int recalled;
+        public List<BatchVerdict> verdicts;
+    }
+
+    static class ProvenanceRoot {
+        public String batchId;
+        public String digest;
+    }
+
+    static class ProvenanceRootPage {
+        public List<ProvenanceRoot> roots;
+        public int count;
+        public String bookmark;
+    }
+
+    static class WorkItem {
+        public String id;
+        public String parentId;
+        public String summary;
+        public String timestamp;
+    }
+
+    static class WorkQueuePage {
+        public String queue;
+        public List<WorkItem> items;
+        public int count;
+        public String bookmark;
+    }
 }
\ No newline at end of file
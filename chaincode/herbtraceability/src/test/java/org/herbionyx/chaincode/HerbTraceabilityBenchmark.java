@@ -0,0 +1,61 @@
+package org.herbionyx.chaincode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of the contract under concurrent invocations at several
+ * executor pool sizes (the TP_CORE_POOL_SIZE/TP_MAX_POOL_SIZE knob).
+ *
+ * Each state call waits a simulated peer round trip, since that is where a
+ * chaincode thread spends its time. Run with: gradle benchmark
+ * [-PbenchPoolSizes=1,4,16,64] [-PbenchChains=500] [-PbenchStateLatencyMicros=200]
+ */
+public final class HerbTraceabilityBenchmark {
+
+    private HerbTraceabilityBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String[] poolSizes = System.getProperty("bench.poolSizes", "1,2,4,8,16,32,64").split(",");
+        int chains = Integer.getInteger("bench.chains", 500);
+        long latencyMicros = Long.getLong("bench.stateLatencyMicros", 200);
+
+        System.out.printf("HerbTraceability throughput: %d chains x %d transactions, %d us per state call%n",
+            chains, SupplyChainFixture.TRANSACTIONS_PER_CHAIN, latencyMicros);
+
+        // Warm up JIT and Genson on a throwaway ledger
+        run(8, chains, latencyMicros);
+
+        System.out.printf("%10s %12s %16s%n", "pool size", "elapsed ms", "invocations/s");
+        for (String poolSize : poolSizes) {
+            int threads = Integer.parseInt(poolSize.trim());
+            long elapsedNanos = run(threads, chains, latencyMicros);
+            double perSecond = chains * SupplyChainFixture.TRANSACTIONS_PER_CHAIN / (elapsedNanos / 1e9);
+            System.out.printf("%10d %12d %16.0f%n", threads, elapsedNanos / 1_000_000, perSecond);
+        }
+    }
+
+    private static long run(final int threads, final int chains, final long latencyMicros) throws Exception {
+        HerbTraceability contract = new HerbTraceability();
+        InMemoryLedger ledger = new InMemoryLedger(latencyMicros);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(chains);
+        for (int n = 0; n < chains; n++) {
+            final int chain = n;
+            futures.add(pool.submit(() -> SupplyChainFixture.runChain(contract, ledger, chain)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        pool.shutdown();
+        return elapsed;
+    }
+}
@@ -0,0 +1,82 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.herbionyx.chaincode.HerbTraceability.BatchVerdict;
+import org.herbionyx.chaincode.HerbTraceability.BulkVerification;
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+class HerbTraceabilityBulkVerifyTest {
+
+    private final Genson genson = new Genson();
+    private final HerbTraceability contract = new HerbTraceability();
+    private final InMemoryLedger ledger = new InMemoryLedger();
+
+    @Test
+    void verdictsKeepInputOrderAndCountMissingAndRecalled() {
+        ProductBatch live = SupplyChainFixture.runChain(contract, ledger, 0);
+        ProductBatch recalled = SupplyChainFixture.runChain(contract, ledger, 1);
+        contract.initiateRecall(ledger.context("NMPBOrgMSP"), "{\"batchId\":\"" + recalled.batchId
+            + "\",\"reason\":\"Contamination\",\"timestamp\":\"2024-02-01T00:00:00Z\"}");
+
+        BulkVerification bulk = contract.verifyBatches(ledger.context("NMPBOrgMSP"),
+            "[\"" + recalled.batchId + "\",\"BATCH_missing\",null,\"\",\"" + live.batchId + "\"]");
+
+        assertThat(bulk.total).isEqualTo(5);
+        assertThat(bulk.notFound).isEqualTo(3);
+        assertThat(bulk.recalled).isEqualTo(1);
+        assertThat(bulk.verdicts).extracting(verdict -> verdict.batchId)
+            .containsExactly(recalled.batchId, "BATCH_missing", null, "", live.batchId);
+        assertThat(bulk.verdicts).extracting(verdict -> verdict.status)
+            .containsExactly("RECALLED", "NOT_FOUND", "NOT_FOUND", "NOT_FOUND", "MANUFACTURED");
+        assertThat(bulk.verdicts).extracting(verdict -> verdict.recalled)
+            .containsExactly(true, false, false, false, false);
+        assertThat(bulk.verdicts.get(4).manufacturerMSP).isEqualTo("ManufacturersOrgMSP");
+    }
+
+    @Test
+    void recalledAgreesWithVerifyProduct() {
+        ProductBatch live = SupplyChainFixture.runChain(contract, ledger, 0);
+        ProductBatch recalled = SupplyChainFixture.runChain(contract, ledger, 1);
+        contract.initiateRecall(ledger.context("NMPBOrgMSP"), "{\"batchId\":\"" + recalled.batchId
+            + "\",\"reason\":\"Contamination\",\"timestamp\":\"2024-02-01T00:00:00Z\"}");
+
+        // A recall from before the index existed is invisible to both until backfilled
+        ledger.put("RECALL_RECALL_1699999999999", "{\"recallId\":\"RECALL_1699999999999\",\"batchId\":\""
+            + live.batchId + "\",\"reason\":\"Mislabelled\",\"status\":\"ACTIVE\"}");
+
+        for (BatchVerdict verdict : contract.verifyBatches(ledger.context("NMPBOrgMSP"),
+                "[\"" + live.batchId + "\",\"" + recalled.batchId + "\"]").verdicts) {
+            assertThat(verdict.recalled)
+                .isEqualTo(contract.verifyProduct(ledger.context("NMPBOrgMSP"), verdict.batchId).recalled);
+        }
+    }
+
+    @Test
+    void emptyAndNullListsProduceEmptyResult() {
+        assertThat(contract.verifyBatches(ledger.context("NMPBOrgMSP"), "[]").total).isZero();
+        assertThat(contract.verifyBatches(ledger.context("NMPBOrgMSP"), "null").verdicts).isEmpty();
+    }
+
+    @Test
+    void rejectsMoreThanTheBulkLimit() {
+        List<String> ids = new ArrayList<>(Collections.nCopies(HerbTraceability.BULK_VERIFY_MAX_IDS, "BATCH_x"));
+        assertThat(contract.verifyBatches(ledger.context("NMPBOrgMSP"), genson.serialize(ids)).notFound)
+            .isEqualTo(HerbTraceability.BULK_VERIFY_MAX_IDS);
+
+        ids.add("BATCH_x");
+        assertThatThrownBy(() -> contract.verifyBatches(ledger.context("NMPBOrgMSP"), genson.serialize(ids)))
+            .isInstanceOfSatisfying(ChaincodeException.class, e ->
+                assertThat(new String(e.getPayload(), StandardCharsets.UTF_8)).isEqualTo("BULK_LIMIT_EXCEEDED"));
+    }
+}
@@ -0,0 +1,101 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.herbionyx.chaincode.HerbTraceability.CollectionEvent;
+import org.herbionyx.chaincode.HerbTraceability.ProcessingRecord;
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.herbionyx.chaincode.HerbTraceability.ProductVerification;
+import org.herbionyx.chaincode.HerbTraceability.ProvenanceStep;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+/**
+ * Runs many supply chains through one shared contract instance on a fixed
+ * pool, the way the shim's transaction executor dispatches proposals.
+ */
+class HerbTraceabilityConcurrencyTest {
+
+    private static final int CHAINS = 200;
+    private static final int POOL_SIZE = 16;
+
+    private final Genson genson = new Genson();
+
+    @Test
+    void concurrentSupplyChainsProduceCompleteRecordsAndIndexes() throws Exception {
+        HerbTraceability contract = new HerbTraceability();
+        InMemoryLedger ledger = new InMemoryLedger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(POOL_SIZE);
+        List<Future<ProductBatch>> futures = new ArrayList<>();
+        for (int n = 0; n < CHAINS; n++) {
+            final int chain = n;
+            futures.add(pool.submit(() -> SupplyChainFixture.runChain(contract, ledger, chain)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        for (int n = 0; n < CHAINS; n++) {
+            ProductBatch returned = futures.get(n).get();
+            assertChainComplete(contract, ledger, n, returned);
+        }
+
+        assertThat(ledger.valuesWithPrefix("COLLECTION_")).hasSize(CHAINS);
+        assertThat(ledger.valuesWithPrefix("QUALITY_")).hasSize(CHAINS);
+        assertThat(ledger.valuesWithPrefix("PROCESSING_")).hasSize(CHAINS);
+        assertThat(ledger.valuesWithPrefix("BATCH_")).hasSize(CHAINS);
+        assertThat(ledger.compositeValues(HerbTraceability.PROVENANCE_ROOT_INDEX)).hasSize(CHAINS);
+
+        // Every lot moved through every queue
+        assertThat(ledger.compositeValues(HerbTraceability.WORK_QUEUE_INDEX,
+            HerbTraceability.QUEUE_AWAITING_TEST)).isEmpty();
+        assertThat(ledger.compositeValues(HerbTraceability.WORK_QUEUE_INDEX,
+            HerbTraceability.QUEUE_AWAITING_PROCESSING)).isEmpty();
+        assertThat(ledger.compositeValues(HerbTraceability.WORK_QUEUE_INDEX,
+            HerbTraceability.QUEUE_AWAITING_BATCH)).isEmpty();
+    }
+
+    private void assertChainComplete(final HerbTraceability contract, final InMemoryLedger ledger, final int n,
+            final ProductBatch returned) {
+        String batchJSON = ledger.get("BATCH_" + returned.batchId);
+        assertThat(batchJSON).isNotNull();
+
+        ProductBatch stored = genson.deserialize(batchJSON, ProductBatch.class);
+        assertThat(stored.productName).isEqualTo("Ashwagandha Powder " + n);
+        assertThat(stored.status).isEqualTo("MANUFACTURED");
+        assertThat(stored.provenanceDigest)
+            .isEqualTo(returned.provenanceDigest)
+            .isEqualTo(HerbTraceability.computeProvenanceDigest(stored));
+        assertThat(stored.qrCode).contains(stored.provenanceDigest);
+
+        // Provenance points back at this chain's own collection, not another thread's
+        List<ProvenanceStep> steps = stored.provenanceChain.steps;
+        assertThat(steps).hasSize(3);
+        assertThat(steps.get(0).imageHash).isEqualTo("QmCollection" + n);
+        assertThat(steps.get(1).imageHash).isEqualTo("QmTest" + n);
+
+        String rootKey = new CompositeKey(HerbTraceability.PROVENANCE_ROOT_INDEX, stored.batchId).toString();
+        assertThat(ledger.get(rootKey)).isEqualTo(stored.provenanceDigest);
+
+        String processingJSON = ledger.get("PROCESSING_" + stored.processId);
+        ProcessingRecord processing = genson.deserialize(processingJSON, ProcessingRecord.class);
+        CollectionEvent collection = genson.deserialize(ledger.get("COLLECTION_" + processing.eventId),
+            CollectionEvent.class);
+        assertThat(collection.status).isEqualTo("QUALITY_PASSED");
+        assertThat(collection.imageHash).isEqualTo("QmCollection" + n);
+
+        ProductVerification verification = contract.verifyProduct(ledger.context("NMPBOrgMSP"), stored.batchId);
+        assertThat(verification.exists).isTrue();
+        assertThat(verification.recalled).isFalse();
+        assertThat(verification.hashIntegrity).isEqualTo("VERIFIED");
+    }
+}
@@ -0,0 +1,79 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.herbionyx.chaincode.HerbTraceability.ProvenanceRoot;
+import org.herbionyx.chaincode.HerbTraceability.ProvenanceRootPage;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+class HerbTraceabilityProvenanceRootsTest {
+
+    private static final int ROOTS = HerbTraceability.MAX_PAGE_SIZE + 5;
+
+    private final HerbTraceability contract = new HerbTraceability();
+    private final InMemoryLedger ledger = new InMemoryLedger();
+
+    @Test
+    void bookmarksHandOffBetweenPages() {
+        seedRoots();
+
+        List<ProvenanceRoot> roots = new ArrayList<>();
+        String bookmark = "";
+        int pages = 0;
+        for (;;) {
+            ProvenanceRootPage page = contract.getProvenanceRoots(ledger.context("NMPBOrgMSP"), 300, bookmark);
+            if (page.count == 0) {
+                break;
+            }
+            assertThat(page.count).isEqualTo(page.roots.size()).isLessThanOrEqualTo(300);
+            roots.addAll(page.roots);
+            bookmark = page.bookmark;
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(roots).extracting(root -> root.batchId)
+            .doesNotHaveDuplicates()
+            .hasSize(ROOTS)
+            .isSorted();
+        assertThat(roots.get(0).digest).isEqualTo("digest0000");
+    }
+
+    @Test
+    void pageSizeIsClampedToMaxPageSize() {
+        seedRoots();
+
+        ProvenanceRootPage oversized = contract.getProvenanceRoots(ledger.context("NMPBOrgMSP"), 5000, "");
+        assertThat(oversized.count).isEqualTo(HerbTraceability.MAX_PAGE_SIZE);
+
+        ProvenanceRootPage rest = contract.getProvenanceRoots(ledger.context("NMPBOrgMSP"), 5000, oversized.bookmark);
+        assertThat(rest.count).isEqualTo(ROOTS - HerbTraceability.MAX_PAGE_SIZE);
+
+        ProvenanceRootPage zero = contract.getProvenanceRoots(ledger.context("NMPBOrgMSP"), 0, "");
+        assertThat(zero.count).isEqualTo(1);
+    }
+
+    @Test
+    void rootsMatchTheBatchesThatPublishedThem() {
+        ProductBatch first = SupplyChainFixture.runChain(contract, ledger, 1);
+        ProductBatch second = SupplyChainFixture.runChain(contract, ledger, 2);
+
+        ProvenanceRootPage page = contract.getProvenanceRoots(ledger.context("NMPBOrgMSP"), 10, "");
+        assertThat(page.roots).extracting(root -> root.batchId + "=" + root.digest)
+            .containsExactlyInAnyOrder(first.batchId + "=" + first.provenanceDigest,
+                second.batchId + "=" + second.provenanceDigest);
+    }
+
+    private void seedRoots() {
+        for (int n = 0; n < ROOTS; n++) {
+            String batchId = String.format("BATCH_%04d", n);
+            ledger.put(new CompositeKey(HerbTraceability.PROVENANCE_ROOT_INDEX, batchId).toString(),
+                String.format("digest%04d", n));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.herbionyx.chaincode.HerbTraceability.ProductVerification;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+class HerbTraceabilityRecallTest {
+
+    @Test
+    void recallsAreIndexedByBatchAndReportedByVerifyProduct() {
+        HerbTraceability contract = new HerbTraceability();
+        InMemoryLedger ledger = new InMemoryLedger();
+        ProductBatch batch = SupplyChainFixture.runChain(contract, ledger, 1);
+
+        String recall = "{\"batchId\":\"" + batch.batchId + "\",\"reason\":\"Contamination\","
+            + "\"timestamp\":\"2024-02-01T00:00:00Z\"}";
+        String first = contract.initiateRecall(ledger.context("NMPBOrgMSP"), recall);
+        String second = contract.initiateRecall(ledger.context("NMPBOrgMSP"), recall);
+
+        // IDs come from the transaction, so two recalls of one batch never collide
+        assertThat(first).isNotEqualTo(second);
+        assertThat(ledger.compositeValues(HerbTraceability.RECALL_BY_BATCH_INDEX, batch.batchId)).hasSize(2);
+        assertThat(ledger.get(new CompositeKey(HerbTraceability.PROVENANCE_ROOT_INDEX, batch.batchId).toString()))
+            .isNull();
+
+        ProductVerification verification = contract.verifyProduct(ledger.context("NMPBOrgMSP"), batch.batchId);
+        assertThat(verification.status).isEqualTo("RECALLED");
+        assertThat(verification.recalled).isTrue();
+        assertThat(verification.activeRecalls).hasSize(2)
+            .allSatisfy(notice -> assertThat(notice.reason).isEqualTo("Contamination"));
+    }
+
+    @Test
+    void legacyRecallsAreAppliedByTheBackfill() {
+        HerbTraceability contract = new HerbTraceability();
+        InMemoryLedger ledger = new InMemoryLedger();
+        ProductBatch batch = SupplyChainFixture.runChain(contract, ledger, 1);
+
+        // A recall written before the index existed: no index key, batch still live
+        ledger.put("RECALL_RECALL_1699999999999", "{\"recallId\":\"RECALL_1699999999999\",\"batchId\":\""
+            + batch.batchId + "\",\"reason\":\"Contamination\",\"status\":\"ACTIVE\"}");
+        assertThat(contract.verifyProduct(ledger.context("NMPBOrgMSP"), batch.batchId).recalled).isFalse();
+
+        assertThatThrownBy(() -> contract.backfillRecallIndex(ledger.context("ManufacturersOrgMSP")))
+            .isInstanceOf(ChaincodeException.class);
+        assertThat(contract.backfillRecallIndex(ledger.context("NMPBOrgMSP"))).contains("1 active recalls");
+
+        ProductVerification verification = contract.verifyProduct(ledger.context("NMPBOrgMSP"), batch.batchId);
+        assertThat(verification.status).isEqualTo("RECALLED");
+        assertThat(verification.recalled).isTrue();
+        assertThat(verification.activeRecalls).extracting(notice -> notice.recallId)
+            .containsExactly("RECALL_1699999999999");
+        assertThat(ledger.get(new CompositeKey(HerbTraceability.PROVENANCE_ROOT_INDEX, batch.batchId).toString()))
+            .isNull();
+
+        // Re-running is harmless: the index key is the same
+        contract.backfillRecallIndex(ledger.context("NMPBOrgMSP"));
+        assertThat(ledger.compositeValues(HerbTraceability.RECALL_BY_BATCH_INDEX, batch.batchId)).hasSize(1);
+    }
+
+    @Test
+    void verifyProductReportsUnknownBatchWithoutError() {
+        HerbTraceability contract = new HerbTraceability();
+        InMemoryLedger ledger = new InMemoryLedger();
+
+        ProductVerification verification = contract.verifyProduct(ledger.context("NMPBOrgMSP"), "BATCH_missing");
+        assertThat(verification.exists).isFalse();
+        assertThat(verification.status).isEqualTo("NOT_FOUND");
+        assertThat(verification.activeRecalls).isEmpty();
+    }
+}
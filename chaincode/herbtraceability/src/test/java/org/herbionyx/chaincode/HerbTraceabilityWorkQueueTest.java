@@ -0,0 +1,136 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.herbionyx.chaincode.HerbTraceability.CollectionEvent;
+import org.herbionyx.chaincode.HerbTraceability.ProcessingRecord;
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.herbionyx.chaincode.HerbTraceability.QualityAttestation;
+import org.herbionyx.chaincode.HerbTraceability.WorkQueuePage;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+class HerbTraceabilityWorkQueueTest {
+
+    private final Genson genson = new Genson();
+    private final HerbTraceability contract = new HerbTraceability();
+    private final InMemoryLedger ledger = new InMemoryLedger();
+
+    @Test
+    void queuesPageInRecordIdOrder() {
+        for (int n = 0; n < 5; n++) {
+            SupplyChainFixture.collect(contract, ledger, n);
+        }
+
+        WorkQueuePage first = contract.getCollectionsAwaitingTest(ledger.context("LabsOrgMSP"), 3, "");
+        assertThat(first.count).isEqualTo(3);
+        WorkQueuePage second = contract.getCollectionsAwaitingTest(ledger.context("LabsOrgMSP"), 3, first.bookmark);
+        assertThat(second.count).isEqualTo(2);
+        assertThat(second.items.get(0).id).isGreaterThan(first.items.get(2).id);
+    }
+
+    @Test
+    void eachStepAcceptsAnItemOnlyOnce() {
+        CollectionEvent event = SupplyChainFixture.collect(contract, ledger, 1);
+        SupplyChainFixture.attest(contract, ledger, event.eventId, 1);
+        assertThatThrownBy(() -> SupplyChainFixture.attest(contract, ledger, event.eventId, 1))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting testing");
+
+        QualityAttestation test = contract.getQualityTest(ledger.context("LabsOrgMSP"),
+            contract.getTestsAwaitingProcessing(ledger.context("ProcessorsOrgMSP"), 10, "").items.get(0).id);
+        ProcessingRecord processing = SupplyChainFixture.process(contract, ledger, test.testId);
+        assertThatThrownBy(() -> SupplyChainFixture.process(contract, ledger, test.testId))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting processing");
+
+        SupplyChainFixture.batch(contract, ledger, processing.processId, 1);
+        assertThatThrownBy(() -> SupplyChainFixture.batch(contract, ledger, processing.processId, 1))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting batching");
+
+        assertThat(ledger.valuesWithPrefix("QUALITY_")).hasSize(1);
+        assertThat(ledger.valuesWithPrefix("PROCESSING_")).hasSize(1);
+        assertThat(ledger.valuesWithPrefix("BATCH_")).hasSize(1);
+        assertThat(ledger.compositeValues(HerbTraceability.WORK_QUEUE_INDEX)).isEmpty();
+    }
+
+    @Test
+    void legacyRecordsMoveOnOnlyAfterBackfill() {
+        CollectionEvent event = SupplyChainFixture.collect(contract, ledger, 1);
+        QualityAttestation test = SupplyChainFixture.attest(contract, ledger, event.eventId, 1);
+
+        // Simulate a test attested before the queue index existed
+        ledger.remove(queueKey(HerbTraceability.QUEUE_AWAITING_PROCESSING, test.testId));
+        assertThatThrownBy(() -> SupplyChainFixture.process(contract, ledger, test.testId))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting processing");
+
+        assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("LabsOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_PROCESSING, "[\"" + test.testId + "\"]"))
+            .isInstanceOf(ChaincodeException.class);
+
+        contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_PROCESSING, "[\"" + test.testId + "\"]");
+        ProcessingRecord processing = SupplyChainFixture.process(contract, ledger, test.testId);
+
+        // A consumed test cannot be queued again
+        assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_PROCESSING, "[\"" + test.testId + "\"]"))
+            .isInstanceOf(ChaincodeException.class);
+
+        ProductBatch batch = SupplyChainFixture.batch(contract, ledger, processing.processId, 1);
+        assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_BATCH, "[\"" + processing.processId + "\"]"))
+            .isInstanceOf(ChaincodeException.class);
+        assertThat(batch.processId).isEqualTo(processing.processId);
+    }
+
+    @Test
+    void backfillRejectsLegacyRecordsAlreadyConsumed() {
+        ProductBatch batch = SupplyChainFixture.runChain(contract, ledger, 1);
+        ProcessingRecord processing = genson.deserialize(ledger.get("PROCESSING_" + batch.processId),
+            ProcessingRecord.class);
+        QualityAttestation test = genson.deserialize(ledger.get("QUALITY_" + processing.testId),
+            QualityAttestation.class);
+
+        // Rewind both records to how the old chaincode left them after batching
+        processing.status = "PROCESSED";
+        ledger.put("PROCESSING_" + processing.processId, genson.serialize(processing));
+        test.processId = null;
+        ledger.put("QUALITY_" + test.testId, genson.serialize(test));
+
+        assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_BATCH, "[\"" + processing.processId + "\"]"))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting batching");
+        assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+            HerbTraceability.QUEUE_AWAITING_PROCESSING, "[\"" + test.testId + "\"]"))
+            .isInstanceOf(ChaincodeException.class)
+            .hasMessageContaining("not awaiting processing");
+        assertThat(ledger.compositeValues(HerbTraceability.WORK_QUEUE_INDEX)).isEmpty();
+    }
+
+    @Test
+    void backfillRejectsMalformedInput() {
+        for (String queue : new String[] {null, "AWAITING_NOTHING"}) {
+            assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"), queue, "[]"))
+                .isInstanceOf(ChaincodeException.class)
+                .hasMessageContaining("Unknown work queue");
+        }
+        for (String ids : new String[] {"null", "{\"id\":1}", "[null]", "[\"\"]"}) {
+            assertThatThrownBy(() -> contract.backfillWorkQueue(ledger.context("NMPBOrgMSP"),
+                HerbTraceability.QUEUE_AWAITING_TEST, ids))
+                .isInstanceOf(ChaincodeException.class)
+                .hasMessageContaining("Record IDs");
+        }
+    }
+
+    private static String queueKey(final String queue, final String recordId) {
+        return new CompositeKey(HerbTraceability.WORK_QUEUE_INDEX, queue, recordId).toString();
+    }
+}
@@ -0,0 +1,244 @@
+package org.herbionyx.chaincode;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.hyperledger.fabric.contract.ClientIdentity;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.ChaincodeShim.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.mockito.invocation.InvocationOnMock;
+
+/**
+ * Thread-safe in-memory world state for driving the contract without a peer.
+ *
+ * Each call to context() returns a Context with its own mocked ChaincodeStub
+ * (own txId and timestamp) writing straight through to one shared sorted map.
+ * Writes are applied immediately, so there is no MVCC: concurrent writers of
+ * the same key overwrite each other instead of failing validation.
+ */
+final class InMemoryLedger {
+
+    private final NavigableMap<String, byte[]> state = new ConcurrentSkipListMap<>();
+    private final AtomicLong txCounter = new AtomicLong();
+    private final long stateLatencyNanos;
+
+    InMemoryLedger() {
+        this(0);
+    }
+
+    /**
+     * @param stateLatencyMicros simulated peer round trip added to every state call
+     */
+    InMemoryLedger(final long stateLatencyMicros) {
+        this.stateLatencyNanos = TimeUnit.MICROSECONDS.toNanos(stateLatencyMicros);
+    }
+
+    /**
+     * New transaction context for a client of the given MSP
+     */
+    Context context(final String mspId) {
+        long tx = txCounter.incrementAndGet();
+        String txId = String.format("%08x%056x", tx, tx);
+        Instant txTimestamp = Instant.ofEpochMilli(1_700_000_000_000L + tx);
+
+        ChaincodeStub stub = mock(ChaincodeStub.class, invocation -> answer(invocation, txId, txTimestamp));
+        ClientIdentity identity = mock(ClientIdentity.class);
+        when(identity.getMSPID()).thenReturn(mspId);
+        when(identity.getId()).thenReturn("x509::CN=user" + tx + "::" + mspId);
+
+        Context ctx = mock(Context.class);
+        when(ctx.getStub()).thenReturn(stub);
+        when(ctx.getClientIdentity()).thenReturn(identity);
+        return ctx;
+    }
+
+    String get(final String key) {
+        byte[] value = state.get(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a key directly, e.g. to seed state written by an older chaincode version
+     */
+    void put(final String key, final String value) {
+        state.put(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Delete a key directly, e.g. to recreate state written before an index existed
+     */
+    void remove(final String key) {
+        state.remove(key);
+    }
+
+    /**
+     * All values whose key starts with the given prefix, in key order
+     */
+    List<String> valuesWithPrefix(final String prefix) {
+        List<String> values = new ArrayList<>();
+        for (byte[] value : prefixRange(prefix).values()) {
+            values.add(new String(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    /**
+     * Values under a composite key prefix, in key order
+     */
+    List<String> compositeValues(final String objectType, final String... attributes) {
+        return valuesWithPrefix(new CompositeKey(objectType, attributes).toString());
+    }
+
+    private NavigableMap<String, byte[]> prefixRange(final String prefix) {
+        return state.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private Object answer(final InvocationOnMock invocation, final String txId, final Instant txTimestamp) {
+        Object[] args = invocation.getArguments();
+        switch (invocation.getMethod().getName()) {
+            case "getTxId":
+                return txId;
+            case "getTxTimestamp":
+                return txTimestamp;
+            case "getState":
+                simulateRoundTrip();
+                return state.getOrDefault((String) args[0], new byte[0]);
+            case "getStringState":
+                simulateRoundTrip();
+                byte[] value = state.get((String) args[0]);
+                return value == null ? "" : new String(value, StandardCharsets.UTF_8);
+            case "putState":
+                state.put((String) args[0], (byte[]) args[1]);
+                return null;
+            case "putStringState":
+                state.put((String) args[0], ((String) args[1]).getBytes(StandardCharsets.UTF_8));
+                return null;
+            case "delState":
+                state.remove((String) args[0]);
+                return null;
+            case "createCompositeKey":
+                return new CompositeKey((String) args[0], attributes(args));
+            case "splitCompositeKey":
+                return CompositeKey.parseCompositeKey((String) args[0]);
+            case "getStateByRange":
+                simulateRoundTrip();
+                return results(state.subMap((String) args[0], true, (String) args[1], false));
+            case "getStateByPartialCompositeKey":
+                simulateRoundTrip();
+                return results(prefixRange(partialKey(args)));
+            case "getStateByPartialCompositeKeyWithPagination":
+                simulateRoundTrip();
+                return page(args[0].toString(), (Integer) args[1], (String) args[2]);
+            default:
+                return null;
+        }
+    }
+
+    private static String partialKey(final Object[] args) {
+        if (args[0] instanceof CompositeKey) {
+            return args[0].toString();
+        }
+        return new CompositeKey((String) args[0], attributes(args)).toString();
+    }
+
+    // Mockito expands varargs, so the attributes are every argument after the object type
+    private static String[] attributes(final Object[] args) {
+        return Arrays.copyOfRange(args, 1, args.length, String[].class);
+    }
+
+    private QueryResultsIterator<KeyValue> results(final Map<String, byte[]> range) {
+        List<KeyValue> snapshot = snapshot(range, Integer.MAX_VALUE);
+        return new QueryResultsIterator<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return snapshot.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private QueryResultsIteratorWithMetadata<KeyValue> page(final String prefix, final int pageSize,
+            final String bookmark) {
+        NavigableMap<String, byte[]> range = prefixRange(prefix);
+        if (bookmark != null && !bookmark.isEmpty()) {
+            range = range.tailMap(bookmark, false);
+        }
+        List<KeyValue> snapshot = snapshot(range, pageSize);
+        String nextBookmark = snapshot.isEmpty() ? "" : snapshot.get(snapshot.size() - 1).getKey();
+        QueryResponseMetadata metadata = QueryResponseMetadata.newBuilder()
+            .setFetchedRecordsCount(snapshot.size())
+            .setBookmark(nextBookmark)
+            .build();
+
+        return new QueryResultsIteratorWithMetadata<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return snapshot.iterator();
+            }
+
+            @Override
+            public QueryResponseMetadata getMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static List<KeyValue> snapshot(final Map<String, byte[]> range, final int limit) {
+        List<KeyValue> results = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : range.entrySet()) {
+            if (results.size() == limit) {
+                break;
+            }
+            String key = entry.getKey();
+            byte[] value = entry.getValue();
+            results.add(new KeyValue() {
+                @Override
+                public String getKey() {
+                    return key;
+                }
+
+                @Override
+                public byte[] getValue() {
+                    return value;
+                }
+
+                @Override
+                public String getStringValue() {
+                    return new String(value, StandardCharsets.UTF_8);
+                }
+            });
+        }
+        return results;
+    }
+
+    private void simulateRoundTrip() {
+        if (stateLatencyNanos > 0) {
+            LockSupport.parkNanos(stateLatencyNanos);
+        }
+    }
+}
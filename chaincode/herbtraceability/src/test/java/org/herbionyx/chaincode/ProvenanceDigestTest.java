@@ -0,0 +1,48 @@
+package org.herbionyx.chaincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+/**
+ * The offline verifier (src/utils/provenanceVerifier.js) recomputes this
+ * digest; both sides assert the same golden vector.
+ */
+class ProvenanceDigestTest {
+
+    private final Genson genson = new Genson();
+
+    static class DigestVector {
+        public String description;
+        public String expectedDigest;
+        public ProductBatch batch;
+    }
+
+    @Test
+    void digestMatchesGoldenVector() throws IOException {
+        DigestVector vector = genson.deserialize(readResource("provenance-digest-vector.json"), DigestVector.class);
+
+        assertThat(HerbTraceability.computeProvenanceDigest(vector.batch)).isEqualTo(vector.expectedDigest);
+    }
+
+    @Test
+    void digestChangesWhenAStepHashChanges() throws IOException {
+        DigestVector vector = genson.deserialize(readResource("provenance-digest-vector.json"), DigestVector.class);
+        vector.batch.provenanceChain.steps.get(0).imageHash = "QmTampered";
+
+        assertThat(HerbTraceability.computeProvenanceDigest(vector.batch)).isNotEqualTo(vector.expectedDigest);
+    }
+
+    private static String readResource(final String name) throws IOException {
+        try (InputStream in = ProvenanceDigestTest.class.getClassLoader().getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.herbionyx.chaincode;
+
+import org.herbionyx.chaincode.HerbTraceability.CollectionEvent;
+import org.herbionyx.chaincode.HerbTraceability.ProcessingRecord;
+import org.herbionyx.chaincode.HerbTraceability.ProductBatch;
+import org.herbionyx.chaincode.HerbTraceability.QualityAttestation;
+
+/**
+ * Drives one lot through collection, quality testing, processing and batch
+ * creation, each step as its own transaction from the owning organization.
+ * The steps are also exposed individually for tests that stop part-way; n
+ * keeps the hashes and product name of each lot distinct.
+ */
+final class SupplyChainFixture {
+
+    static final int TRANSACTIONS_PER_CHAIN = 4;
+
+    private SupplyChainFixture() {
+    }
+
+    static ProductBatch runChain(final HerbTraceability contract, final InMemoryLedger ledger, final int n) {
+        CollectionEvent event = collect(contract, ledger, n);
+        QualityAttestation test = attest(contract, ledger, event.eventId, n);
+        ProcessingRecord processing = process(contract, ledger, test.testId);
+        return batch(contract, ledger, processing.processId, n);
+    }
+
+    static CollectionEvent collect(final HerbTraceability contract, final InMemoryLedger ledger, final int n) {
+        return contract.recordCollectionEvent(ledger.context("FarmersCoopMSP"),
+            "{\"species\":\"Ashwagandha\",\"weight\":" + (100 + n % 400) + ","
+            + "\"latitude\":27.0,\"longitude\":76.0,\"timestamp\":\"2024-01-01T00:00:00Z\","
+            + "\"imageHash\":\"QmCollection" + n + "\",\"metadataHash\":\"QmCollectionMeta" + n + "\"}");
+    }
+
+    static QualityAttestation attest(final HerbTraceability contract, final InMemoryLedger ledger,
+        final String eventId, final int n) {
+        return contract.qualityAttestation(ledger.context("LabsOrgMSP"),
+            "{\"eventId\":\"" + eventId + "\",\"testResults\":{\"moisture\":8.5,\"pesticides\":0.005,"
+            + "\"heavyMetals\":2.1,\"microbial\":\"Negative\"},\"passed\":true,"
+            + "\"timestamp\":\"2024-01-02T00:00:00Z\",\"imageHash\":\"QmTest" + n + "\"}");
+    }
+
+    static ProcessingRecord process(final HerbTraceability contract, final InMemoryLedger ledger,
+        final String testId) {
+        return contract.transferCustody(ledger.context("ProcessorsOrgMSP"),
+            "{\"testId\":\"" + testId + "\",\"processType\":\"Drying\",\"temperature\":60,"
+            + "\"duration\":24,\"yield\":20.2,\"timestamp\":\"2024-01-03T00:00:00Z\"}");
+    }
+
+    static ProductBatch batch(final HerbTraceability contract, final InMemoryLedger ledger,
+        final String processId, final int n) {
+        return contract.batchCreation(ledger.context("ManufacturersOrgMSP"),
+            "{\"processId\":\"" + processId + "\",\"productName\":\"Ashwagandha Powder " + n + "\","
+            + "\"batchSize\":100,\"formulation\":\"Powder\",\"expiryDate\":\"2026-01-01\","
+            + "\"timestamp\":\"2024-01-04T00:00:00Z\"}");
+    }
+}
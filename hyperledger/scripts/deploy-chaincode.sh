@@ -8,12 +8,21 @@ export FABRIC_CFG_PATH=$PWD
 export CORE_PEER_TLS_ENABLED=true
 export ORDERER_CA=${PWD}/organizations/ordererOrganizations/herbionyx.com/orderers/orderer.herbionyx.com/msp/tlscacerts/tlsca.herbionyx.com-cert.pem
 
+# Launch mode: "peer" (peer builds and launches the chaincode) or "ccaas" (chaincode-as-a-service)
+CHAINCODE_LAUNCH_MODE=${CHAINCODE_LAUNCH_MODE:-peer}
+
 # Package chaincode
-echo "📦 Packaging chaincode..."
-peer lifecycle chaincode package herbtraceability.tar.gz \
-  --path ../chaincode/herbtraceability \
-  --lang java \
-  --label herbtraceability_1.0
+echo "📦 Packaging chaincode (${CHAINCODE_LAUNCH_MODE} mode)..."
+if [ "$CHAINCODE_LAUNCH_MODE" = "ccaas" ]; then
+  # Builds the jar, the AppCDS class list and the ccaas package (metadata.json + code.tar.gz)
+  (cd ../chaincode/herbtraceability && gradle jar cdsClassList ccaasPackage)
+  cp ../chaincode/herbtraceability/build/distributions/herbtraceability-ccaas.tar.gz herbtraceability.tar.gz
+else
+  peer lifecycle chaincode package herbtraceability.tar.gz \
+    --path ../chaincode/herbtraceability \
+    --lang java \
+    --label herbtraceability_1.0
+fi
 
 # Install on all peers
 echo "🔧 Installing chaincode on all peers..."
@@ -58,5 +67,11 @@ export CORE_PEER_ADDRESS=localhost:11051
 
 peer lifecycle chaincode install herbtraceability.tar.gz
 
+if [ "$CHAINCODE_LAUNCH_MODE" = "ccaas" ]; then
+  export CHAINCODE_ID=$(peer lifecycle chaincode calculatepackageid herbtraceability.tar.gz)
+  echo "🐳 Starting chaincode service ${CHAINCODE_ID}..."
+  docker-compose --profile ccaas up -d --build herbtraceability.herbionyx.com
+fi
+
 echo "✅ Chaincode deployment completed!"
 echo "🚀 HERBIONYX network is ready for demo!"
\ No newline at end of file
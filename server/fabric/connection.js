@@ -289,9 +289,19 @@ BKfUei9QVL812XFjC1+MOCK+CERTIFICATE+DATA+HERE+FOR+DEMO+PURPOSES
     
     await new Promise(resolve => setTimeout(resolve, 500));
     
+    let mockData = { message: 'Transaction processed successfully' };
+    if (functionName === 'BatchCreation') {
+      // Same payload shape as the chaincode; no digest, since there is no ledger to hash
+      const batchId = `BATCH_${Date.now()}_${txId.slice(-8)}`;
+      mockData = {
+        batchId,
+        qrCode: JSON.stringify({ id: batchId, type: 'final-product', timestamp: new Date().toISOString(), network: 'herbionyx' })
+      };
+    }
+    
     return {
       success: true,
-      result: JSON.stringify({ message: 'Transaction processed successfully' }),
+      result: JSON.stringify(mockData),
       transactionId: txId,
       blockNumber: blockNumber,
       timestamp: new Date().toISOString(),
@@ -379,6 +389,42 @@ BKfUei9QVL812XFjC1+MOCK+CERTIFICATE+DATA+HERE+FOR+DEMO+PURPOSES
         };
         break;
       
+      case 'verifyProduct':
+        mockData = {
+          batchId: args[0],
+          exists: true,
+          status: 'MANUFACTURED',
+          productName: 'Premium Ashwagandha Powder',
+          manufacturerMSP: 'ManufacturersOrgMSP',
+          manufacturingDate: new Date(Date.now() - 3 * 24 * 60 * 60 * 1000).toISOString(),
+          expiryDate: new Date(Date.now() + 365 * 24 * 60 * 60 * 1000).toISOString(),
+          recalled: false,
+          activeRecalls: [],
+          hashIntegrity: 'VERIFIED'
+        };
+        break;
+      
+      case 'verifyBatches': {
+        const batchIds = JSON.parse(args[0]);
+        mockData = {
+          total: batchIds.length,
+          notFound: 0,
+          recalled: 0,
+          verdicts: batchIds.map(batchId => ({
+            batchId,
+            exists: true,
+            status: 'MANUFACTURED',
+            recalled: false,
+            manufacturerMSP: 'ManufacturersOrgMSP'
+          }))
+        };
+        break;
+      }
+      
+      case 'getProvenanceRoots':
+        mockData = { roots: [], count: 0, bookmark: '' };
+        break;
+      
       default:
         mockData = { message: 'Query processed successfully' };
     }
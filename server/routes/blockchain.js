@@ -53,6 +53,14 @@ router.post('/invoke', async (req, res) => {
     
     blockchainTransactions.unshift(transaction);
     
+    // Pass through the IDs and QR payload the chaincode generated for the record
+    let record = {};
+    try {
+      record = JSON.parse(result.result);
+    } catch {
+      record = {};
+    }
+    
     // Keep only last 100 transactions
     if (blockchainTransactions.length > 100) {
       blockchainTransactions = blockchainTransactions.slice(0, 100);
@@ -63,6 +71,12 @@ router.post('/invoke', async (req, res) => {
       transactionId: result.transactionId,
       blockNumber: result.blockNumber,
       timestamp: result.timestamp,
+      eventId: record.eventId,
+      testId: record.testId,
+      processId: record.processId,
+      batchId: record.batchId,
+      qrCode: record.qrCode,
+      provenanceDigest: record.provenanceDigest,
       mock: result.mock || false
     });
     
@@ -158,6 +172,146 @@ router.get('/batch/:batchId', async (req, res) => {
   }
 });
 
+// Verify a scanned product: batch status, active recalls and hash integrity
+router.get('/verify/:batchId', async (req, res) => {
+  try {
+    const { batchId } = req.params;
+    
+    console.log(`📋 Verifying product: ${batchId}`);
+    
+    let result;
+    if (fabricConnected) {
+      result = await fabricConnection.evaluateTransaction('verifyProduct', batchId);
+    } else {
+      result = await fabricConnection.mockEvaluateTransaction('verifyProduct', batchId);
+    }
+    
+    res.json({
+      success: true,
+      data: JSON.parse(result.result),
+      timestamp: result.timestamp,
+      mock: result.mock || false
+    });
+    
+  } catch (error) {
+    console.error('❌ Product verification error:', error);
+    res.status(500).json({ 
+      success: false, 
+      error: error.message 
+    });
+  }
+});
+
+// Bulk verify scanned batches (pallet / warehouse receiving)
+// Matches BULK_VERIFY_MAX_IDS in the chaincode
+const BULK_VERIFY_CHUNK_SIZE = 500;
+// Per request cap, and how many chunks are evaluated at once against the gateway
+const BULK_VERIFY_MAX_IDS = 10000;
+const BULK_VERIFY_CONCURRENCY = 4;
+
+// Run tasks with at most `limit` in flight, keeping results in input order
+async function runWithConcurrency(tasks, limit) {
+  const results = new Array(tasks.length);
+  let next = 0;
+  const workers = Array.from({ length: Math.min(limit, tasks.length) }, async () => {
+    while (next < tasks.length) {
+      const index = next++;
+      results[index] = await tasks[index]();
+    }
+  });
+  await Promise.all(workers);
+  return results;
+}
+
+router.post('/verify-batches', async (req, res) => {
+  try {
+    const { batchIds } = req.body;
+    
+    if (!Array.isArray(batchIds) || batchIds.length === 0) {
+      return res.status(400).json({ 
+        success: false, 
+        error: 'batchIds must be a non-empty array' 
+      });
+    }
+    
+    if (batchIds.length > BULK_VERIFY_MAX_IDS) {
+      return res.status(413).json({ 
+        success: false, 
+        error: `At most ${BULK_VERIFY_MAX_IDS} batch IDs can be verified per request` 
+      });
+    }
+    
+    if (!batchIds.every(batchId => typeof batchId === 'string' && batchId.trim() !== '')) {
+      return res.status(400).json({ 
+        success: false, 
+        error: 'Every batch ID must be a non-empty string' 
+      });
+    }
+    
+    console.log(`📋 Bulk verifying ${batchIds.length} batches`);
+    
+    const chunks = [];
+    for (let i = 0; i < batchIds.length; i += BULK_VERIFY_CHUNK_SIZE) {
+      chunks.push(batchIds.slice(i, i + BULK_VERIFY_CHUNK_SIZE));
+    }
+    
+    const results = await runWithConcurrency(chunks.map(chunk => () => fabricConnected
+      ? fabricConnection.evaluateTransaction('verifyBatches', JSON.stringify(chunk))
+      : fabricConnection.mockEvaluateTransaction('verifyBatches', JSON.stringify(chunk))), BULK_VERIFY_CONCURRENCY);
+    
+    const summary = { total: 0, notFound: 0, recalled: 0, verdicts: [] };
+    for (const result of results) {
+      const data = JSON.parse(result.result);
+      summary.total += data.total;
+      summary.notFound += data.notFound;
+      summary.recalled += data.recalled;
+      summary.verdicts.push(...data.verdicts);
+    }
+    
+    res.json({
+      success: true,
+      data: summary,
+      timestamp: new Date().toISOString(),
+      mock: results.some(result => result.mock)
+    });
+    
+  } catch (error) {
+    console.error('❌ Bulk verification error:', error);
+    res.status(500).json({ 
+      success: false, 
+      error: error.message 
+    });
+  }
+});
+
+// Page through provenance roots for offline verifier sync
+router.get('/provenance-roots', async (req, res) => {
+  try {
+    const { pageSize = 1000, bookmark = '' } = req.query;
+    
+    let result;
+    if (fabricConnected) {
+      result = await fabricConnection.evaluateTransaction('getProvenanceRoots', String(pageSize), bookmark);
+    } else {
+      result = await fabricConnection.mockEvaluateTransaction('getProvenanceRoots', String(pageSize), bookmark);
+    }
+    
+    res.json({
+      success: true,
+      data: JSON.parse(result.result),
+      timestamp: result.timestamp,
+      mock: result.mock || false
+    });
+    
+  } catch (error) {
+    console.error('❌ Provenance roots query error:', error);
+    res.status(500).json({ 
+      success: false, 
+      error: error.message 
+    });
+  }
+});
+
 // Get transaction history
 router.get('/transactions', (req, res) => {
   const { limit = 20 } = req.query;
@@ -3,6 +3,7 @@ import { Database, Hash, Clock, MapPin, User, Package, Eye, EyeOff, AlertCircle,
 
 function BlockchainVerification({ batchId, onVerificationComplete }) {
   const [blockchainData, setBlockchainData] = useState(null);
+  const [productVerification, setProductVerification] = useState(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
   const [showRawTransaction, setShowRawTransaction] = useState(false);
@@ -18,6 +19,7 @@ function BlockchainVerification({ batchId, onVerificationComplete }) {
     setLoading(true);
     setError('');
     setBlockchainData(null);
+    setProductVerification(null);
     
     try {
       console.log('Verifying batch with blockchain:', batchId);
@@ -38,6 +40,7 @@ function BlockchainVerification({ batchId, onVerificationComplete }) {
         if (result.success && result.data) {
           console.log('Blockchain verification successful:', result.data);
           setBlockchainData(result.data);
+          setProductVerification(await fetchProductVerification());
           setRawTransactionData({
             transactionId: result.transactionId || `tx_${Date.now()}`,
             blockHash: result.blockHash || `block_${Math.random().toString(36).substr(2, 16)}`,
@@ -66,6 +69,18 @@ function BlockchainVerification({ batchId, onVerificationComplete }) {
     }
   };
 
+  // Recall and integrity status from the chaincode's verifyProduct
+  const fetchProductVerification = async () => {
+    try {
+      const response = await fetch(`/api/blockchain/verify/${encodeURIComponent(batchId)}`);
+      const result = await response.json();
+      return result.success ? result.data : null;
+    } catch (error) {
+      console.error('Product verification error:', error);
+      return null;
+    }
+  };
+
   if (loading) {
     return (
       <div className="verification-loading">
@@ -101,6 +116,26 @@ function BlockchainVerification({ batchId, onVerificationComplete }) {
       </div>
 
       <div className="verification-content">
+        {productVerification?.recalled && (
+          <div className="recall-warning">
+            <AlertCircle size={20} />
+            <div>
+              <strong>This product has been recalled. Do not consume.</strong>
+              {productVerification.activeRecalls.map(recall => (
+                <div key={recall.recallId}>{recall.reason}</div>
+              ))}
+            </div>
+          </div>
+        )}
+
+        {productVerification && !productVerification.recalled
+          && ['MISMATCH', 'BROKEN'].includes(productVerification.hashIntegrity) && (
+          <div className="recall-warning">
+            <AlertCircle size={20} />
+            <strong>Provenance records do not match this batch ({productVerification.hashIntegrity}).</strong>
+          </div>
+        )}
+
         {/* Core Product Information */}
         <div className="info-section">
           <h4>📦 Product Information</h4>
@@ -315,6 +350,17 @@ function BlockchainVerification({ batchId, onVerificationComplete }) {
           gap: 20px;
         }
 
+        .recall-warning {
+          display: flex;
+          align-items: flex-start;
+          gap: 12px;
+          background: #fef2f2;
+          border: 1px solid #fca5a5;
+          border-radius: 12px;
+          padding: 16px;
+          color: #991b1b;
+        }
+
         .info-section {
           background: white;
           border: 1px solid #dcfce7;
@@ -1,7 +1,7 @@
 import React, { useEffect, useRef, useState } from 'react';
 import { Download, Printer, Copy, Eye } from 'lucide-react';
 
-function QRGenerator({ data, size = 256, batchId, qrType = 'unknown' }) {
+function QRGenerator({ data, size = 256, batchId, payload, qrType = 'unknown' }) {
   const canvasRef = useRef(null);
   const [qrImage, setQrImage] = useState(null);
   const [showPreview, setShowPreview] = useState(true);
@@ -10,12 +10,13 @@ function QRGenerator({ data, size = 256, batchId, qrType = 'unknown' }) {
     if (data) {
       generateRealQR();
     }
-  }, [data, batchId]);
+  }, [data, batchId, payload]);
 
   const generateRealQR = async () => {
     try {
-      // Generate QR code containing only the batch ID
-      const qrContent = batchId || data;
+      // Product QRs carry the chaincode payload with the provenance digest;
+      // everything else contains only the batch ID
+      const qrContent = payload || batchId || data;
       
       const response = await fetch('/api/qr/generate', {
         method: 'POST',
@@ -163,10 +164,10 @@ function QRGenerator({ data, size = 256, batchId, qrType = 'unknown' }) {
           <div className="qr-info">
             <div className="data-preview">
               <h4>QR Data Preview:</h4>
-              <pre>{batchId || data}</pre>
+              <pre>{payload || batchId || data}</pre>
               <div className="qr-info">
                 <p><strong>Type:</strong> {qrType}</p>
-                <p><strong>Contains:</strong> Batch ID only (for blockchain verification)</p>
+                <p><strong>Contains:</strong> {payload ? 'Batch ID and provenance digest (for offline verification)' : 'Batch ID only (for blockchain verification)'}</p>
               </div>
             </div>
           </div>
@@ -112,6 +112,7 @@ function ManufacturerDashboard() {
         setFinalQR({
           ...result.qrData,
           batchId: result.batchId,
+          qrPayload: result.qrPayload,
           qrType: result.qrType
         });
 
@@ -311,6 +312,7 @@ function ManufacturerDashboard() {
               <QRGenerator 
                 data={finalQR.qrCodeUrl} 
                 batchId={finalQR.batchId}
+                payload={finalQR.qrPayload}
                 qrType={finalQR.qrType}
                 size={256} 
               />
@@ -41,7 +41,11 @@ export function BlockchainProvider({ children }) {
         
         const batchId = result.batchId || result.eventId || result.testId || result.processId || `BATCH_${Date.now()}`;
         
-        const qrResult = await generateQR(batchId, {
+        // Product QRs carry the chaincode's payload (with the provenance digest) so
+        // they can be verified offline; intermediate QRs stay the bare record ID
+        const qrPayload = functionName === 'BatchCreation' && result.qrCode ? result.qrCode : batchId;
+        
+        const qrResult = await generateQR(qrPayload, {
           width: 256,
           margin: 2,
           color: {
@@ -52,7 +56,8 @@ export function BlockchainProvider({ children }) {
         
         return {
           ...result,
-          qrData: qrResult,
+          qrData: { ...qrResult, batchId: batchId },
+          qrPayload: qrPayload,
           batchId: batchId,
           qrType: getQRType(functionName)
         };
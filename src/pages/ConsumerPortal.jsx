@@ -2,6 +2,7 @@ import React, { useState } from 'react';
 import QRScanner from '../components/common/QRScanner';
 import BlockchainVerification from '../components/common/BlockchainVerification';
 import { Package, MapPin, Award, Clock } from 'lucide-react';
+import { parseQRPayload, ProvenanceRootCache, verifyOffline } from '../utils/provenanceVerifier';
 import './ConsumerPortal.css';
 
 function ConsumerPortal() {
@@ -9,9 +10,17 @@ function ConsumerPortal() {
   const [provenanceData, setProvenanceData] = useState(null);
 
   const handleQRScan = async (data) => {
-    // The QR data is just the batch ID (e.g., "HERB12345")
-    console.log('Consumer scanned batch ID:', data);
-    setScannedData({ batchId: data });
+    // Product QRs carry the chaincode payload; older labels hold just the batch ID
+    const payload = parseQRPayload(data);
+    const batchId = payload ? payload.id : data;
+    console.log('Consumer scanned batch ID:', batchId);
+    setScannedData({ batchId });
+
+    if (payload) {
+      // Check against the locally synced roots before the online lookup returns
+      const offline = await verifyOffline(data, new ProvenanceRootCache());
+      setScannedData({ batchId, offlineVerdict: offline.verdict });
+    }
   };
 
   const handleBlockchainVerification = (blockchainData) => {
@@ -97,6 +106,12 @@ function ConsumerPortal() {
               <h2>Scan Product QR Code</h2>
               <QRScanner onScan={handleQRScan} />
               
+              {scannedData?.offlineVerdict && (
+                <div className="offline-verdict">
+                  Offline check: <strong>{scannedData.offlineVerdict}</strong>
+                </div>
+              )}
+              
               {scannedData && (
                 <BlockchainVerification 
                   batchId={scannedData.batchId}
@@ -0,0 +1,175 @@
+// HERBIONYX offline provenance verifier
+// Checks a scanned product QR against a locally cached set of provenance roots,
+// synced periodically from the chaincode (getProvenanceRoots). The digest
+// computation mirrors HerbTraceability.computeProvenanceDigest byte for byte.
+
+const ROOTS_STORAGE_KEY = 'herbionyx_provenance_roots';
+
+// Matches MAX_PAGE_SIZE in the chaincode, which caps every page it returns
+const MAX_PAGE_SIZE = 1000;
+
+const encoder = new TextEncoder();
+
+const INSECURE_CONTEXT_REASON =
+  'Web Crypto is unavailable: the page must be served over HTTPS (or from localhost) to recompute digests';
+
+// crypto.subtle only exists in secure contexts, so a plain-HTTP LAN scanner has none
+export function canComputeDigest() {
+  return Boolean(globalThis.crypto?.subtle);
+}
+
+async function sha256Hex(input) {
+  if (!canComputeDigest()) {
+    throw new Error(INSECURE_CONTEXT_REASON);
+  }
+  const hash = await globalThis.crypto.subtle.digest('SHA-256', encoder.encode(input));
+  return Array.from(new Uint8Array(hash))
+    .map(b => b.toString(16).padStart(2, '0'))
+    .join('');
+}
+
+// Six fixed decimals like the chaincode's formatCoordinate. toFixed keeps the
+// sign of tiny negatives ("-0.000000") where BigDecimal drops it, so strip it.
+function coordinate(value) {
+  const text = (value || 0).toFixed(6);
+  return text === '-0.000000' ? '0.000000' : text;
+}
+
+function field(value) {
+  const text = value === null || value === undefined ? '' : String(value);
+  return `${text.length}:${text};`;
+}
+
+// Recompute the provenance digest of a batch record (as returned by GetProvenance)
+export async function computeProvenanceDigest(batch) {
+  let digest = await sha256Hex(
+    field(batch.batchId) +
+    field(batch.productName) +
+    field(batch.manufacturerMSP) +
+    field(batch.manufacturingDate) +
+    field(batch.expiryDate)
+  );
+
+  const steps = batch.provenanceChain?.steps || [];
+  for (const step of steps) {
+    let link = digest +
+      field(step.stage) +
+      field(step.timestamp) +
+      field(step.organization) +
+      field(coordinate(step.latitude)) +
+      field(coordinate(step.longitude)) +
+      field(step.imageHash) +
+      field(step.metadataHash);
+
+    // Java sorts detail keys with TreeMap (UTF-16 code unit order), as does the default sort
+    const details = step.details || {};
+    for (const key of Object.keys(details).sort()) {
+      link += field(key) + field(details[key]);
+    }
+
+    digest = await sha256Hex(link);
+  }
+
+  return digest;
+}
+
+// Parse a product QR payload; returns null when it is not a HERBIONYX code
+export function parseQRPayload(qrText) {
+  try {
+    const payload = JSON.parse(qrText);
+    if (!payload || payload.network !== 'herbionyx' || !payload.id) {
+      return null;
+    }
+    return payload;
+  } catch {
+    return null;
+  }
+}
+
+// Cached map of batchId -> digest, persisted in localStorage when available
+export class ProvenanceRootCache {
+  constructor(storage = globalThis.localStorage) {
+    this.storage = storage;
+    this.roots = {};
+    this.syncedAt = null;
+
+    const saved = this.storage?.getItem(ROOTS_STORAGE_KEY);
+    if (saved) {
+      const parsed = JSON.parse(saved);
+      this.roots = parsed.roots || {};
+      this.syncedAt = parsed.syncedAt || null;
+    }
+  }
+
+  // Replace the cache with a full sync; recalled batches drop out because the
+  // chaincode withdraws their roots
+  async sync(fetchPage, pageSize = MAX_PAGE_SIZE) {
+    const roots = {};
+    const size = Math.min(pageSize, MAX_PAGE_SIZE);
+    let bookmark = '';
+
+    // A short page does not mean the end; only an empty page or bookmark does
+    for (;;) {
+      const page = await fetchPage(size, bookmark);
+      for (const root of page.roots) {
+        roots[root.batchId] = root.digest;
+      }
+      if (!page.bookmark || page.count === 0) {
+        break;
+      }
+      bookmark = page.bookmark;
+    }
+
+    this.roots = roots;
+    this.syncedAt = new Date().toISOString();
+    this.storage?.setItem(ROOTS_STORAGE_KEY, JSON.stringify({ roots, syncedAt: this.syncedAt }));
+  }
+
+  get(batchId) {
+    return this.roots[batchId];
+  }
+}
+
+// Fetch one page of roots from the HERBIONYX server
+export async function fetchRootsPage(pageSize, bookmark) {
+  const params = new URLSearchParams({ pageSize: String(pageSize), bookmark });
+  const response = await fetch(`/api/blockchain/provenance-roots?${params}`);
+  const result = await response.json();
+  if (!result.success) {
+    throw new Error(result.error || 'Failed to fetch provenance roots');
+  }
+  return result.data;
+}
+
+// Verify a scanned QR without a network call.
+// Verdicts: VERIFIED, UNKNOWN (not in cache: unknown, recalled or cache stale),
+// MISMATCH (QR or cached record does not match the root), NO_DIGEST (legacy QR),
+// INSECURE_CONTEXT (QR matches the root, but the cached record cannot be rehashed)
+export async function verifyOffline(qrText, cache, cachedBatch = null) {
+  const payload = parseQRPayload(qrText);
+  if (!payload) {
+    return { verdict: 'INVALID', batchId: null };
+  }
+  if (!payload.digest) {
+    return { verdict: 'NO_DIGEST', batchId: payload.id };
+  }
+
+  const root = cache.get(payload.id);
+  const result = { batchId: payload.id, syncedAt: cache.syncedAt };
+  if (!root) {
+    return { ...result, verdict: 'UNKNOWN' };
+  }
+  if (root !== payload.digest) {
+    return { ...result, verdict: 'MISMATCH' };
+  }
+  if (cachedBatch) {
+    if (!canComputeDigest()) {
+      return { ...result, verdict: 'INSECURE_CONTEXT', reason: INSECURE_CONTEXT_REASON };
+    }
+    if (await computeProvenanceDigest(cachedBatch) !== root) {
+      return { ...result, verdict: 'MISMATCH' };
+    }
+  }
+
+  return { ...result, verdict: 'VERIFIED' };
+}
@@ -0,0 +1,55 @@
+// Run with: npm test (Node's built-in test runner, Node 20+)
+import { test } from 'node:test';
+import assert from 'node:assert/strict';
+import { readFile } from 'node:fs/promises';
+
+import { computeProvenanceDigest, ProvenanceRootCache, verifyOffline } from './provenanceVerifier.js';
+
+// Shared with the chaincode's ProvenanceDigestTest so both sides stay byte-identical
+const vectorUrl = new URL(
+  '../../chaincode/herbtraceability/src/test/resources/provenance-digest-vector.json',
+  import.meta.url
+);
+const vector = JSON.parse(await readFile(vectorUrl, 'utf8'));
+
+test('digest matches the golden vector', async () => {
+  assert.equal(await computeProvenanceDigest(vector.batch), vector.expectedDigest);
+});
+
+test('sync follows bookmarks past pages capped by the chaincode', async () => {
+  const all = Array.from({ length: 2500 }, (_, i) => ({ batchId: `B${String(i).padStart(5, '0')}`, digest: `d${i}` }));
+  const fetchPage = async (pageSize, bookmark) => {
+    const start = bookmark ? all.findIndex(root => root.batchId === bookmark) + 1 : 0;
+    const roots = all.slice(start, start + Math.min(pageSize, 1000));
+    return { roots, count: roots.length, bookmark: roots.length ? roots[roots.length - 1].batchId : '' };
+  };
+
+  const cache = new ProvenanceRootCache(null);
+  await cache.sync(fetchPage, 2000);
+
+  assert.equal(Object.keys(cache.roots).length, all.length);
+});
+
+test('offline verification checks the QR digest against cached roots', async () => {
+  const cache = new ProvenanceRootCache(null);
+  cache.roots = { [vector.batch.batchId]: vector.expectedDigest };
+  const qr = digest => JSON.stringify({ id: vector.batch.batchId, type: 'final-product', network: 'herbionyx', digest });
+
+  assert.equal((await verifyOffline(qr(vector.expectedDigest), cache, vector.batch)).verdict, 'VERIFIED');
+  assert.equal((await verifyOffline(qr('0'.repeat(64)), cache)).verdict, 'MISMATCH');
+  assert.equal((await verifyOffline(qr(vector.expectedDigest), new ProvenanceRootCache(null))).verdict, 'UNKNOWN');
+});
+
+test('offline verification without Web Crypto returns a verdict instead of throwing', async t => {
+  const descriptor = Object.getOwnPropertyDescriptor(globalThis, 'crypto');
+  Object.defineProperty(globalThis, 'crypto', { value: undefined, configurable: true });
+  t.after(() => Object.defineProperty(globalThis, 'crypto', descriptor));
+
+  const cache = new ProvenanceRootCache(null);
+  cache.roots = { [vector.batch.batchId]: vector.expectedDigest };
+  const qr = JSON.stringify({ id: vector.batch.batchId, type: 'final-product', network: 'herbionyx', digest: vector.expectedDigest });
+
+  assert.equal((await verifyOffline(qr, cache, vector.batch)).verdict, 'INSECURE_CONTEXT');
+  assert.equal((await verifyOffline(qr, cache)).verdict, 'VERIFIED');
+  await assert.rejects(computeProvenanceDigest(vector.batch), /HTTPS/);
+});